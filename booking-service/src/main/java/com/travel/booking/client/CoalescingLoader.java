@@ -0,0 +1,147 @@
+package com.travel.booking.client;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads entities by id through a bulk endpoint. Concurrent lookups of the same id share one
+ * in-flight request, and lookups of different ids arriving within {@code window} are sent
+ * together, so hot ids cost one downstream call per window instead of one per booking.
+ */
+@Slf4j
+public class CoalescingLoader<T> implements AutoCloseable {
+    
+    private final String name;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Function<Collection<Long>, List<T>> bulkLoader;
+    private final Function<T, Long> idExtractor;
+    private final Function<Long, RuntimeException> notFound;
+    private final Counter coalescedLookups;
+    private final Counter queuedLookups;
+    private final DistributionSummary batchSizes;
+    
+    private final Map<Long, CompletableFuture<T>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flushTimer;
+    private final Object lock = new Object();
+    private Map<Long, CompletableFuture<T>> pending = new LinkedHashMap<>();
+    private long generation;
+    
+    public CoalescingLoader(String name, Duration window, int maxBatchSize,
+                            Function<Collection<Long>, List<T>> bulkLoader,
+                            Function<T, Long> idExtractor,
+                            Function<Long, RuntimeException> notFound,
+                            MeterRegistry meterRegistry) {
+        this.name = name;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.bulkLoader = bulkLoader;
+        this.idExtractor = idExtractor;
+        this.notFound = notFound;
+        this.coalescedLookups = Counter.builder("lookup.requests").tag("loader", name).tag("result", "coalesced")
+                .register(meterRegistry);
+        this.queuedLookups = Counter.builder("lookup.requests").tag("loader", name).tag("result", "queued")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("lookup.batch.size").tag("loader", name)
+                .register(meterRegistry);
+        this.flushTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    public Mono<T> load(Long id) {
+        // Cancelling one caller must not cancel the lookup other callers are sharing
+        return Mono.fromFuture(() -> get(id), true);
+    }
+    
+    public CompletableFuture<T> get(Long id) {
+        CompletableFuture<T> created = new CompletableFuture<>();
+        CompletableFuture<T> existing = inFlight.putIfAbsent(id, created);
+        if (existing != null) {
+            coalescedLookups.increment();
+            return existing;
+        }
+        queuedLookups.increment();
+        created.whenComplete((value, error) -> inFlight.remove(id, created));
+        
+        Map<Long, CompletableFuture<T>> ready = null;
+        synchronized (lock) {
+            pending.put(id, created);
+            if (pending.size() >= maxBatchSize) {
+                ready = takePending();
+            } else if (pending.size() == 1) {
+                long scheduledGeneration = generation;
+                flushTimer.schedule(() -> flush(scheduledGeneration), window.toNanos(), TimeUnit.NANOSECONDS);
+            }
+        }
+        if (ready != null) {
+            dispatch(ready);
+        }
+        return created;
+    }
+    
+    private void flush(long scheduledGeneration) {
+        Map<Long, CompletableFuture<T>> ready;
+        synchronized (lock) {
+            // The batch this timer was started for already went out because it filled up
+            if (scheduledGeneration != generation || pending.isEmpty()) {
+                return;
+            }
+            ready = takePending();
+        }
+        dispatch(ready);
+    }
+    
+    private Map<Long, CompletableFuture<T>> takePending() {
+        Map<Long, CompletableFuture<T>> batch = pending;
+        pending = new LinkedHashMap<>();
+        generation++;
+        return batch;
+    }
+    
+    private void dispatch(Map<Long, CompletableFuture<T>> batch) {
+        batchSizes.record(batch.size());
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                Map<Long, T> loaded = bulkLoader.apply(new ArrayList<>(batch.keySet())).stream()
+                        .collect(Collectors.toMap(idExtractor, Function.identity(), (first, second) -> first));
+                batch.forEach((id, future) -> {
+                    T value = loaded.get(id);
+                    if (value != null) {
+                        future.complete(value);
+                    } else {
+                        future.completeExceptionally(notFound.apply(id));
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("Bulk {} lookup of {} ids failed: {}", name, batch.size(), e.getMessage());
+                batch.values().forEach(future -> future.completeExceptionally(e));
+            }
+        });
+    }
+    
+    @Override
+    public void close() {
+        flushTimer.shutdownNow();
+    }
+}
@@ -0,0 +1,29 @@
+package com.travel.booking.client;
+
+import feign.FeignException;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.util.function.Predicate;
+
+/**
+ * Decides which errors count against a downstream's circuit breaker. Client errors (4xx) are
+ * answers from a healthy service, and a full bulkhead is our own back-pressure, so neither
+ * should open the circuit.
+ */
+public class DownstreamFailurePredicate implements Predicate<Throwable> {
+    
+    @Override
+    public boolean test(Throwable throwable) {
+        if (throwable instanceof BulkheadFullException) {
+            return false;
+        }
+        if (throwable instanceof FeignException.FeignClientException) {
+            return false;
+        }
+        if (throwable instanceof WebClientResponseException e) {
+            return !e.getStatusCode().is4xxClientError();
+        }
+        return true;
+    }
+}
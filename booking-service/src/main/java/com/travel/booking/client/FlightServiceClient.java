@@ -2,11 +2,19 @@ package com.travel.booking.client;
 
 import com.travel.booking.dto.ApiResponse;
 import com.travel.booking.dto.FlightDTO;
+import com.travel.booking.dto.FlightQuoteDTO;
+import com.travel.booking.dto.HoldBatchRequest;
+import com.travel.booking.dto.SeatHoldDTO;
+import com.travel.booking.dto.SeatReservationRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 @FeignClient(name = "flight-service", url = "${services.flight.url}")
@@ -18,7 +26,18 @@ public interface FlightServiceClient {
     @GetMapping("/api/flights/{id}/check-availability")
     ApiResponse<Map<String, Boolean>> checkAvailability(@PathVariable("id") Long id);
     
-    @PostMapping("/api/flights/{id}/reserve")
-    ApiResponse<Void> reserveSeat(@PathVariable("id") Long id);
+    @GetMapping("/api/flights/{id}/quote")
+    ApiResponse<FlightQuoteDTO> getFlightQuote(@PathVariable("id") Long id);
+    
+    @GetMapping("/api/flights/quotes")
+    ApiResponse<List<FlightQuoteDTO>> getFlightQuotes(@RequestParam("ids") Collection<Long> ids);
+    
+    @PostMapping("/api/flights/holds")
+    ApiResponse<List<SeatHoldDTO>> createSeatHolds(@RequestBody SeatReservationRequest request);
+    
+    @PostMapping("/api/flights/holds/confirm")
+    ApiResponse<List<SeatHoldDTO>> confirmSeatHolds(@RequestBody HoldBatchRequest request);
+    
+    @PostMapping("/api/flights/holds/release")
+    ApiResponse<List<SeatHoldDTO>> releaseSeatHolds(@RequestBody HoldBatchRequest request);
 }
-
@@ -1,12 +1,20 @@
 package com.travel.booking.client;
 
 import com.travel.booking.dto.ApiResponse;
+import com.travel.booking.dto.HoldBatchRequest;
 import com.travel.booking.dto.HotelDTO;
+import com.travel.booking.dto.HotelQuoteDTO;
+import com.travel.booking.dto.RoomHoldDTO;
+import com.travel.booking.dto.RoomReservationRequest;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 @FeignClient(name = "hotel-service", url = "${services.hotel.url}")
@@ -18,7 +26,18 @@ public interface HotelServiceClient {
     @GetMapping("/api/hotels/{id}/check-availability")
     ApiResponse<Map<String, Boolean>> checkAvailability(@PathVariable("id") Long id);
     
-    @PostMapping("/api/hotels/{id}/reserve")
-    ApiResponse<Void> reserveRoom(@PathVariable("id") Long id);
+    @GetMapping("/api/hotels/{id}/quote")
+    ApiResponse<HotelQuoteDTO> getHotelQuote(@PathVariable("id") Long id);
+    
+    @GetMapping("/api/hotels/quotes")
+    ApiResponse<List<HotelQuoteDTO>> getHotelQuotes(@RequestParam("ids") Collection<Long> ids);
+    
+    @PostMapping("/api/hotels/holds")
+    ApiResponse<List<RoomHoldDTO>> createRoomHolds(@RequestBody RoomReservationRequest request);
+    
+    @PostMapping("/api/hotels/holds/confirm")
+    ApiResponse<List<RoomHoldDTO>> confirmRoomHolds(@RequestBody HoldBatchRequest request);
+    
+    @PostMapping("/api/hotels/holds/release")
+    ApiResponse<List<RoomHoldDTO>> releaseRoomHolds(@RequestBody HoldBatchRequest request);
 }
-
@@ -0,0 +1,36 @@
+package com.travel.booking.client;
+
+import com.travel.booking.service.LatencyMetrics;
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Times every Feign request on the wire, tagged by client name, interface method and
+ * outcome. Calls rejected by {@link ResilienceCapability} never reach the client and are
+ * not recorded here.
+ */
+@RequiredArgsConstructor
+public class MetricsCapability implements Capability {
+    
+    private final LatencyMetrics latencyMetrics;
+    
+    @Override
+    public Client enrich(Client client) {
+        return (request, options) -> {
+            String service = request.requestTemplate().feignTarget().name();
+            String operation = request.requestTemplate().methodMetadata().method().getName();
+            long start = System.nanoTime();
+            String outcome = "ERROR";
+            try {
+                Response response = client.execute(request, options);
+                outcome = Outcome.forStatus(response.status()).name();
+                return response;
+            } finally {
+                latencyMetrics.recordDownstream(service, operation, outcome, System.nanoTime() - start);
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.travel.booking.client;
+
+import com.travel.booking.exception.DownstreamUnavailableException;
+import feign.Capability;
+import feign.InvocationHandlerFactory;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.core.functions.CheckedSupplier;
+import lombok.RequiredArgsConstructor;
+
+import java.lang.reflect.InvocationHandler;
+
+/**
+ * Runs every Feign call through the circuit breaker and bulkhead named after the client
+ * ({@code @FeignClient(name = ...)}). Rejected calls fail immediately with
+ * {@link DownstreamUnavailableException} instead of waiting on a degraded service.
+ */
+@RequiredArgsConstructor
+public class ResilienceCapability implements Capability {
+    
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    
+    @Override
+    public InvocationHandlerFactory enrich(InvocationHandlerFactory invocationHandlerFactory) {
+        return (target, dispatch) -> {
+            InvocationHandler handler = invocationHandlerFactory.create(target, dispatch);
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(target.name());
+            Bulkhead bulkhead = bulkheadRegistry.bulkhead(target.name());
+            return (proxy, method, args) -> {
+                if (method.getDeclaringClass() == Object.class) {
+                    return handler.invoke(proxy, method, args);
+                }
+                CheckedSupplier<Object> call = CircuitBreaker.decorateCheckedSupplier(circuitBreaker,
+                        Bulkhead.decorateCheckedSupplier(bulkhead, () -> handler.invoke(proxy, method, args)));
+                try {
+                    return call.get();
+                } catch (CallNotPermittedException | BulkheadFullException e) {
+                    throw new DownstreamUnavailableException(target.name() + " is unavailable: " + e.getMessage(), e);
+                }
+            };
+        };
+    }
+}
@@ -0,0 +1,112 @@
+package com.travel.booking.client;
+
+import com.travel.booking.exception.DownstreamUnavailableException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * WebClient counterpart of {@link ResilienceCapability}. Server errors are raised here so the
+ * circuit breaker sees them; callers observe the same {@code WebClientResponseException}
+ * that {@code retrieve()} would have produced.
+ * <p>
+ * A call lasts until its response body has been read, not just until the headers arrive, so
+ * the bulkhead permit is held and the breaker outcome recorded only once the body completes,
+ * fails or is cancelled. Slow or broken bodies therefore count against both.
+ */
+@RequiredArgsConstructor
+public class ResilienceExchangeFilter implements ExchangeFilterFunction {
+    
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        return Mono.defer(() -> {
+            if (!circuitBreaker.tryAcquirePermission()) {
+                return Mono.error(unavailable(CallNotPermittedException.createCallNotPermittedException(circuitBreaker)));
+            }
+            if (!bulkhead.tryAcquirePermission()) {
+                circuitBreaker.releasePermission();
+                return Mono.error(unavailable(BulkheadFullException.createBulkheadFullException(bulkhead)));
+            }
+            Call call = new Call(circuitBreaker.getCurrentTimestamp());
+            return next.exchange(request)
+                    .flatMap(response -> {
+                        if (response.statusCode().is5xxServerError()) {
+                            return response.createException().flatMap(Mono::<ClientResponse>error);
+                        }
+                        call.responded.set(true);
+                        return Mono.just(response.mutate()
+                                .body(body -> body
+                                        .doOnComplete(call::succeeded)
+                                        .doOnError(call::failed)
+                                        .doOnCancel(call::cancelled))
+                                .build());
+                    })
+                    .doOnError(call::failed)
+                    .doOnCancel(() -> {
+                        // Once the response is handed over, the body decides how the call ends
+                        if (!call.responded.get()) {
+                            call.cancelled();
+                        }
+                    });
+        });
+    }
+    
+    private DownstreamUnavailableException unavailable(RuntimeException e) {
+        return new DownstreamUnavailableException(circuitBreaker.getName() + " is unavailable: " + e.getMessage(), e);
+    }
+    
+    /**
+     * One permitted call, finished exactly once by whichever signal ends it first.
+     */
+    private class Call {
+        private final long start;
+        private final AtomicBoolean responded = new AtomicBoolean();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        
+        Call(long start) {
+            this.start = start;
+        }
+        
+        void succeeded() {
+            if (finish()) {
+                circuitBreaker.onSuccess(elapsed(), circuitBreaker.getTimestampUnit());
+            }
+        }
+        
+        void failed(Throwable e) {
+            if (finish()) {
+                circuitBreaker.onError(elapsed(), circuitBreaker.getTimestampUnit(), e);
+            }
+        }
+        
+        void cancelled() {
+            if (finish()) {
+                circuitBreaker.releasePermission();
+            }
+        }
+        
+        private boolean finish() {
+            if (!finished.compareAndSet(false, true)) {
+                return false;
+            }
+            bulkhead.onComplete();
+            return true;
+        }
+        
+        private long elapsed() {
+            return circuitBreaker.getCurrentTimestamp() - start;
+        }
+    }
+}
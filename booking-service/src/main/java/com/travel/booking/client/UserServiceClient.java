@@ -0,0 +1,71 @@
+package com.travel.booking.client;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.travel.booking.dto.ApiResponse;
+import com.travel.booking.dto.UserDTO;
+import com.travel.booking.exception.BookingException;
+import com.travel.booking.exception.DownstreamUnavailableException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reads users through a bounded, TTL-based cache. Entries carry the {@code active} flag so
+ * a cached user can be validated without calling user-service; user-service evicts entries
+ * when a user is updated or deleted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserServiceClient {
+    
+    @Qualifier("userWebClient")
+    private final WebClient userWebClient;
+    private final AsyncCache<Long, UserDTO> userCache;
+    
+    public Mono<UserDTO> getActiveUser(Long userId) {
+        return getUser(userId)
+                .map(user -> {
+                    if (!Boolean.TRUE.equals(user.getActive())) {
+                        throw new BookingException("User validation failed. User ID: " + userId);
+                    }
+                    return user;
+                });
+    }
+    
+    public Mono<UserDTO> getUserDetails(Long userId) {
+        return getUser(userId);
+    }
+    
+    public void evictUser(Long userId) {
+        userCache.synchronous().invalidate(userId);
+        log.debug("Evicted cached user {}", userId);
+    }
+    
+    private Mono<UserDTO> getUser(Long userId) {
+        // Concurrent callers share one load; a caller timing out must not cancel it for the others.
+        // Failed loads are not cached.
+        return Mono.fromFuture(() -> userCache.get(userId, (id, executor) -> loadUser(id).toFuture()), true);
+    }
+    
+    private Mono<UserDTO> loadUser(Long userId) {
+        // The user resource carries the active flag, so one typed call replaces validate + details
+        return userWebClient.get()
+                .uri("/api/users/{id}", userId)
+                .retrieve()
+                .bodyToMono(new ParameterizedTypeReference<ApiResponse<UserDTO>>() {})
+                .mapNotNull(ApiResponse::getData)
+                .switchIfEmpty(Mono.error(() -> new BookingException("Failed to fetch user details")))
+                .onErrorMap(WebClientResponseException.NotFound.class,
+                        e -> new BookingException("User validation failed. User ID: " + userId))
+                .onErrorMap(e -> !(e instanceof BookingException || e instanceof DownstreamUnavailableException), e -> {
+                    log.error("Failed to get user details", e);
+                    return new BookingException("Failed to fetch user details: " + e.getMessage());
+                });
+    }
+}
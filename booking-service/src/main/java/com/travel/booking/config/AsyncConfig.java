@@ -0,0 +1,46 @@
+package com.travel.booking.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class AsyncConfig {
+    
+    @Value("${booking.async.core-pool-size:8}")
+    private int corePoolSize;
+    
+    @Value("${booking.async.max-pool-size:16}")
+    private int maxPoolSize;
+    
+    @Value("${booking.async.queue-capacity:500}")
+    private int queueCapacity;
+    
+    /**
+     * Declaring any executor makes Boot back off its default one, which Spring MVC uses for
+     * streaming responses, so it is kept here explicitly.
+     */
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.taskDecorator(new ContextPropagatingTaskDecorator()).build();
+    }
+    
+    @Bean
+    public ThreadPoolTaskExecutor bookingExecutor() {
+        // Bounded on purpose: when the queue is full, submissions are rejected rather than piling up
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("booking-");
+        // Background processing stays part of the trace of the request that submitted it
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -0,0 +1,106 @@
+package com.travel.booking.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.http.HttpHost;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.net.URISyntaxException;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Pooled transport for inter-service calls. WebClients share one Reactor Netty connection
+ * provider; Feign clients run on the Apache HttpClient 5 pool configured under
+ * {@code spring.cloud.openfeign.httpclient}, sized from the same {@code http-client.*} settings.
+ */
+@Configuration
+public class HttpClientConfig {
+    
+    @Value("${http-client.max-connections-per-host:50}")
+    private int maxConnectionsPerHost;
+    
+    @Value("${http-client.pending-acquire-timeout:5s}")
+    private Duration pendingAcquireTimeout;
+    
+    @Value("${http-client.max-idle-time:30s}")
+    private Duration maxIdleTime;
+    
+    @Value("${http-client.max-life-time:5m}")
+    private Duration maxLifeTime;
+    
+    @Value("${http-client.protocols:HTTP11}")
+    private HttpProtocol[] protocols;
+    
+    @Value("${http-client.compression:true}")
+    private boolean compression;
+    
+    @Value("${services.flight.url}")
+    private String flightServiceUrl;
+    
+    @Value("${services.hotel.url}")
+    private String hotelServiceUrl;
+    
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider interServiceConnectionProvider() {
+        // One pool per remote host; metrics are tagged with the remote address
+        return ConnectionProvider.builder("inter-service")
+                .maxConnections(maxConnectionsPerHost)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+    
+    @Bean
+    public ClientHttpConnector interServiceConnector(ConnectionProvider interServiceConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(interServiceConnectionProvider)
+                .protocol(protocols)
+                .keepAlive(true)
+                .compress(compression);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+    
+    @Bean
+    public MeterBinder feignConnectionPoolMetrics(HttpClientConnectionManager hc5ConnectionManager) {
+        PoolingHttpClientConnectionManager pool = (PoolingHttpClientConnectionManager) hc5ConnectionManager;
+        MeterBinder totals = new PoolingHttpClientConnectionManagerMetricsBinder(pool, "feign");
+        Map<String, String> downstreams = Map.of("flight", flightServiceUrl, "hotel", hotelServiceUrl);
+        return registry -> {
+            totals.bindTo(registry);
+            downstreams.forEach((name, url) -> {
+                HttpRoute route = route(url);
+                Gauge.builder("feign.connection.pool.leased", pool, p -> p.getStats(route).getLeased())
+                        .tag("downstream", name)
+                        .register(registry);
+                Gauge.builder("feign.connection.pool.available", pool, p -> p.getStats(route).getAvailable())
+                        .tag("downstream", name)
+                        .register(registry);
+                Gauge.builder("feign.connection.pool.pending", pool, p -> p.getStats(route).getPending())
+                        .tag("downstream", name)
+                        .register(registry);
+            });
+        };
+    }
+    
+    private static HttpRoute route(String url) {
+        try {
+            return new HttpRoute(HttpHost.create(url));
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Invalid service URL: " + url, e);
+        }
+    }
+}
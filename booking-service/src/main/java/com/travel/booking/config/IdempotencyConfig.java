@@ -0,0 +1,33 @@
+package com.travel.booking.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travel.booking.service.IdempotencyService.StoredResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class IdempotencyConfig {
+    
+    @Value("${idempotency.cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    @Value("${idempotency.cache.ttl:10m}")
+    private Duration ttl;
+    
+    @Bean
+    public Cache<String, StoredResponse> idempotencyCache(MeterRegistry meterRegistry) {
+        Cache<String, StoredResponse> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        // Recent responses are replayed from memory; older ones are read back from idempotency_keys
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency");
+    }
+}
@@ -0,0 +1,15 @@
+package com.travel.booking.config;
+
+import com.travel.booking.client.MetricsCapability;
+import com.travel.booking.service.LatencyMetrics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    
+    @Bean
+    public MetricsCapability metricsCapability(LatencyMetrics latencyMetrics) {
+        return new MetricsCapability(latencyMetrics);
+    }
+}
@@ -0,0 +1,44 @@
+package com.travel.booking.config;
+
+import com.travel.booking.client.CoalescingLoader;
+import com.travel.booking.client.FlightServiceClient;
+import com.travel.booking.client.HotelServiceClient;
+import com.travel.booking.dto.FlightQuoteDTO;
+import com.travel.booking.dto.HotelQuoteDTO;
+import com.travel.booking.exception.BookingException;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class QuoteLoaderConfig {
+    
+    @Value("${booking.lookup.batch-window:2ms}")
+    private Duration batchWindow;
+    
+    @Value("${booking.lookup.max-batch-size:100}")
+    private int maxBatchSize;
+    
+    @Bean
+    public CoalescingLoader<FlightQuoteDTO> flightQuoteLoader(FlightServiceClient flightServiceClient,
+                                                              MeterRegistry meterRegistry) {
+        return new CoalescingLoader<>("flight-quotes", batchWindow, maxBatchSize,
+                ids -> flightServiceClient.getFlightQuotes(ids).getData(),
+                FlightQuoteDTO::getFlightId,
+                id -> new BookingException("Flight not found. Flight ID: " + id),
+                meterRegistry);
+    }
+    
+    @Bean
+    public CoalescingLoader<HotelQuoteDTO> hotelQuoteLoader(HotelServiceClient hotelServiceClient,
+                                                            MeterRegistry meterRegistry) {
+        return new CoalescingLoader<>("hotel-quotes", batchWindow, maxBatchSize,
+                ids -> hotelServiceClient.getHotelQuotes(ids).getData(),
+                HotelQuoteDTO::getHotelId,
+                id -> new BookingException("Hotel not found. Hotel ID: " + id),
+                meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+package com.travel.booking.config;
+
+import com.travel.booking.client.ResilienceCapability;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ResilienceConfig {
+    
+    @Bean
+    public ResilienceCapability resilienceCapability(CircuitBreakerRegistry circuitBreakerRegistry,
+                                                     BulkheadRegistry bulkheadRegistry) {
+        return new ResilienceCapability(circuitBreakerRegistry, bulkheadRegistry);
+    }
+}
@@ -0,0 +1,33 @@
+package com.travel.booking.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travel.booking.dto.UserDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class UserCacheConfig {
+    
+    @Value("${booking.user-cache.maximum-size:10000}")
+    private long maximumSize;
+    
+    @Value("${booking.user-cache.ttl:5m}")
+    private Duration ttl;
+    
+    @Bean
+    public AsyncCache<Long, UserDTO> userCache(MeterRegistry meterRegistry) {
+        AsyncCache<Long, UserDTO> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        // Publishes cache.gets{result=hit|miss}, cache.evictions and cache.size tagged cache=users
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "users");
+    }
+}
@@ -1,13 +1,25 @@
 package com.travel.booking.config;
 
+import com.travel.booking.client.MetricsExchangeFilter;
+import com.travel.booking.client.ResilienceExchangeFilter;
+import com.travel.booking.service.LatencyMetrics;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebClientConfig {
     
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final LatencyMetrics latencyMetrics;
+    
     @Value("${services.user.url}")
     private String userServiceUrl;
     
@@ -15,17 +27,28 @@ public class WebClientConfig {
     private String notificationServiceUrl;
     
     @Bean
-    public WebClient userWebClient() {
-        return WebClient.builder()
+    public WebClient userWebClient(WebClient.Builder webClientBuilder, ClientHttpConnector interServiceConnector) {
+        // Boot's builder is observed, so calls carry the current trace context
+        return webClientBuilder
                 .baseUrl(userServiceUrl)
+                .clientConnector(interServiceConnector)
+                .filter(resilienceFilter("user-service"))
+                .filter(new MetricsExchangeFilter(latencyMetrics, "user-service"))
                 .build();
     }
     
     @Bean
-    public WebClient notificationWebClient() {
-        return WebClient.builder()
+    public WebClient notificationWebClient(WebClient.Builder webClientBuilder, ClientHttpConnector interServiceConnector) {
+        return webClientBuilder
                 .baseUrl(notificationServiceUrl)
+                .clientConnector(interServiceConnector)
+                .filter(resilienceFilter("notification-service"))
+                .filter(new MetricsExchangeFilter(latencyMetrics, "notification-service"))
                 .build();
     }
+    
+    private ResilienceExchangeFilter resilienceFilter(String downstream) {
+        return new ResilienceExchangeFilter(
+                circuitBreakerRegistry.circuitBreaker(downstream), bulkheadRegistry.bulkhead(downstream));
+    }
 }
-
@@ -1,30 +1,75 @@
 package com.travel.booking.controller;
 
 import com.travel.booking.dto.ApiResponse;
+import com.travel.booking.dto.CursorPage;
+import com.travel.booking.dto.BookingBatchRequest;
+import com.travel.booking.dto.BookingBatchResult;
 import com.travel.booking.dto.BookingDTO;
 import com.travel.booking.dto.BookingRequest;
+import com.travel.booking.dto.BookingStatusBatchUpdateRequest;
 import com.travel.booking.dto.BookingStatusUpdateRequest;
+import com.travel.booking.entity.Booking.BookingStatus;
+import com.travel.booking.exception.BookingException;
+import com.travel.booking.service.BookingBatchService;
+import com.travel.booking.service.BookingExportService;
 import com.travel.booking.service.BookingService;
+import com.travel.booking.service.BookingSubmissionService;
+import com.travel.booking.service.IdempotencyService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/bookings")
 @RequiredArgsConstructor
 public class BookingController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final BookingService bookingService;
+    private final BookingBatchService bookingBatchService;
+    private final BookingExportService bookingExportService;
+    private final BookingSubmissionService bookingSubmissionService;
+    private final IdempotencyService idempotencyService;
     
     @PostMapping
-    public ResponseEntity<ApiResponse<BookingDTO>> createBooking(@Valid @RequestBody BookingRequest request) {
-        BookingDTO booking = bookingService.createBooking(request);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Booking created successfully", booking));
+    public ResponseEntity<ApiResponse<BookingDTO>> createBooking(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BookingRequest request) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings", request, BookingDTO.class, () -> {
+            BookingDTO booking = bookingService.createBooking(request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Booking created successfully", booking));
+        });
+    }
+    
+    @PostMapping("/async")
+    public ResponseEntity<ApiResponse<BookingDTO>> submitBooking(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody BookingRequest request) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/bookings/async", request, BookingDTO.class, () -> {
+            BookingDTO booking = bookingSubmissionService.submit(request);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/bookings/" + booking.getId()))
+                    .body(ApiResponse.success("Booking accepted for processing", booking));
+        });
+    }
+    
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<BookingBatchResult> createBookings(@Valid @RequestBody BookingBatchRequest request) {
+        return bookingBatchService.createBookings(request.getBookings());
     }
     
     @GetMapping("/{id}")
@@ -33,16 +78,41 @@ public class BookingController {
         return ResponseEntity.ok(ApiResponse.success("Booking retrieved successfully", booking));
     }
     
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamBookingStatus(@PathVariable Long id) {
+        return bookingSubmissionService.streamStatus(id);
+    }
+    
     @GetMapping
-    public ResponseEntity<ApiResponse<List<BookingDTO>>> getAllBookings() {
-        List<BookingDTO> bookings = bookingService.getAllBookings();
-        return ResponseEntity.ok(ApiResponse.success("Bookings retrieved successfully", bookings));
+    public ResponseEntity<ApiResponse<List<BookingDTO>>> getAllBookings(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<BookingDTO> bookings = bookingService.getAllBookings(after, limit);
+        return withNextCursor(bookings.getNextCursor())
+                .body(ApiResponse.success("Bookings retrieved successfully", bookings.getItems()));
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponse<List<BookingDTO>>> getBookingsByUserId(@PathVariable Long userId) {
-        List<BookingDTO> bookings = bookingService.getBookingsByUserId(userId);
-        return ResponseEntity.ok(ApiResponse.success("User bookings retrieved successfully", bookings));
+    public ResponseEntity<ApiResponse<List<BookingDTO>>> getBookingsByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<BookingDTO> bookings = bookingService.getBookingsByUserId(userId, after, limit);
+        return withNextCursor(bookings.getNextCursor())
+                .body(ApiResponse.success("User bookings retrieved successfully", bookings.getItems()));
+    }
+    
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate travelDateFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate travelDateTo) {
+        if (travelDateFrom != null && travelDateTo != null && travelDateFrom.isAfter(travelDateTo)) {
+            throw new BookingException("travelDateFrom must not be after travelDateTo");
+        }
+        StreamingResponseBody body = out ->
+                bookingExportService.exportBookings(status, travelDateFrom, travelDateTo, out);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
     }
     
     @PutMapping("/{id}/status")
@@ -53,10 +123,25 @@ public class BookingController {
         return ResponseEntity.ok(ApiResponse.success("Booking status updated successfully", booking));
     }
     
+    @PutMapping("/status/batch")
+    public ResponseEntity<ApiResponse<Map<String, List<Long>>>> updateBookingStatuses(
+            @Valid @RequestBody BookingStatusBatchUpdateRequest request) {
+        Map<String, List<Long>> result = bookingService.updateBookingStatuses(request.getUpdates());
+        return ResponseEntity.ok(ApiResponse.success("Booking statuses updated", result));
+    }
+    
     @DeleteMapping("/{id}")
     public ResponseEntity<ApiResponse<Void>> cancelBooking(@PathVariable Long id) {
         bookingService.cancelBooking(id);
         return ResponseEntity.ok(ApiResponse.success("Booking cancelled successfully", null));
     }
+    
+    private ResponseEntity.BodyBuilder withNextCursor(Long nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+        }
+        return response;
+    }
 }
 
@@ -0,0 +1,21 @@
+package com.travel.booking.controller;
+
+import com.travel.booking.client.UserServiceClient;
+import com.travel.booking.dto.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/bookings/user-cache")
+@RequiredArgsConstructor
+public class UserCacheController {
+    
+    private final UserServiceClient userServiceClient;
+    
+    @DeleteMapping("/{userId}")
+    public ResponseEntity<ApiResponse<Void>> evictUser(@PathVariable Long userId) {
+        userServiceClient.evictUser(userId);
+        return ResponseEntity.ok(ApiResponse.success("Cached user evicted", null));
+    }
+}
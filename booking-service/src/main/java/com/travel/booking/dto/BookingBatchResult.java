@@ -0,0 +1,23 @@
+package com.travel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingBatchResult {
+    private int index;
+    private boolean success;
+    private String message;
+    private BookingDTO booking;
+    
+    public static BookingBatchResult success(int index, BookingDTO booking) {
+        return new BookingBatchResult(index, true, "Booking created successfully", booking);
+    }
+    
+    public static BookingBatchResult failure(int index, String message, BookingDTO booking) {
+        return new BookingBatchResult(index, false, message, booking);
+    }
+}
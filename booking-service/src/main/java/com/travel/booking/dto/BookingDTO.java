@@ -19,6 +19,8 @@ public class BookingDTO {
     private Long flightId;
     private Long hotelId;
     private LocalDate travelDate;
+    private Integer passengers;
+    private Integer rooms;
     private BigDecimal flightPrice;
     private BigDecimal hotelPrice;
     private BigDecimal totalCost;
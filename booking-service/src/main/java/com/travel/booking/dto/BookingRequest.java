@@ -1,6 +1,8 @@
 package com.travel.booking.dto;
 
 import jakarta.validation.constraints.Future;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
@@ -25,5 +27,15 @@ public class BookingRequest {
     @NotNull(message = "Travel date is required")
     @Future(message = "Travel date must be in the future")
     private LocalDate travelDate;
+    
+    @NotNull(message = "Number of passengers is required")
+    @Min(value = 1, message = "At least one passenger is required")
+    @Max(value = 9, message = "At most 9 passengers can travel on one booking")
+    private Integer passengers = 1;
+    
+    @NotNull(message = "Number of rooms is required")
+    @Min(value = 1, message = "At least one room is required")
+    @Max(value = 9, message = "At most 9 rooms can be reserved on one booking")
+    private Integer rooms = 1;
 }
 
@@ -0,0 +1,19 @@
+package com.travel.booking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusBatchUpdateRequest {
+    
+    @NotEmpty(message = "At least one status update is required")
+    @Size(max = 500, message = "A batch cannot contain more than 500 status updates")
+    private List<BookingStatusUpdateRequest> updates;
+}
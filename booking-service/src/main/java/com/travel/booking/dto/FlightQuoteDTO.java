@@ -0,0 +1,18 @@
+package com.travel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FlightQuoteDTO {
+    private Long flightId;
+    private BigDecimal price;
+    private Integer availableSeats;
+    private Boolean available;
+    private Long version;
+}
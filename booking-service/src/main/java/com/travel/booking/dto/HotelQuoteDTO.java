@@ -0,0 +1,18 @@
+package com.travel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotelQuoteDTO {
+    private Long hotelId;
+    private BigDecimal pricePerNight;
+    private Integer availableRooms;
+    private Boolean available;
+    private Long version;
+}
@@ -0,0 +1,18 @@
+package com.travel.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldDTO {
+    private String holdId;
+    private Long flightId;
+    private Integer quantity;
+    private String status;
+    private LocalDateTime expiresAt;
+}
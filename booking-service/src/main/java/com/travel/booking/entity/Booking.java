@@ -10,7 +10,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings",
+        indexes = @Index(name = "idx_bookings_user_id_id", columnList = "user_id, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -33,12 +34,16 @@ public class Booking {
     private LocalDate travelDate;
     
     @Column(nullable = false)
-    private BigDecimal flightPrice;
+    private Integer passengers = 1;
     
     @Column(nullable = false)
+    private Integer rooms = 1;
+    
+    // Unit prices, filled in once availability is checked, so they are null while PROCESSING
+    private BigDecimal flightPrice;
+    
     private BigDecimal hotelPrice;
     
-    @Column(nullable = false)
     private BigDecimal totalCost;
     
     @Column(nullable = false)
@@ -68,7 +73,7 @@ public class Booking {
     }
     
     public enum BookingStatus {
-        PENDING, CONFIRMED, FAILED, CANCELLED
+        PROCESSING, PENDING, CONFIRMED, FAILED, CANCELLED
     }
 }
 
@@ -0,0 +1,93 @@
+package com.travel.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Progress of the inventory holds taken for one booking. Each completed step is committed
+ * on its own, so after a failure, a cancellation or a restart the saga still knows exactly
+ * which holds have to be confirmed or given back.
+ */
+@Entity
+@Table(name = "booking_sagas",
+        indexes = @Index(name = "idx_booking_sagas_status_next_attempt", columnList = "status, next_attempt_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSaga {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(nullable = false, unique = true)
+    private Long bookingId;
+    
+    @Column(nullable = false)
+    private Long flightId;
+    
+    @Column(nullable = false)
+    private Long hotelId;
+    
+    @Column(nullable = false)
+    private Integer seats;
+    
+    @Column(nullable = false)
+    private Integer rooms;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private SagaStatus status;
+    
+    @Column(nullable = false)
+    private Boolean seatsHeld = false;
+    
+    @Column(nullable = false)
+    private Boolean roomsHeld = false;
+    
+    @Column(length = 36)
+    private String seatHoldId;
+    
+    @Column(length = 36)
+    private String roomHoldId;
+    
+    @Column(nullable = false)
+    private Integer attempts = 0;
+    
+    @Column(name = "next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+    
+    @Column(length = 1000)
+    private String lastError;
+    
+    @Version
+    private Long version;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+        if (status == null) {
+            status = SagaStatus.RESERVING;
+        }
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public enum SagaStatus {
+        RESERVING, RESERVED, CONFIRMING, CONFIRMED, COMPENSATING, COMPENSATED, FAILED
+    }
+}
@@ -0,0 +1,11 @@
+package com.travel.booking.event;
+
+import com.travel.booking.dto.BookingDTO;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class BookingStatusChangedEvent {
+    private final BookingDTO booking;
+}
@@ -1,13 +1,36 @@
 package com.travel.booking.repository;
 
 import com.travel.booking.entity.Booking;
+import com.travel.booking.entity.Booking.BookingStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    List<Booking> findByUserId(Long userId);
+    List<Booking> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<Booking> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+    
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b " +
+            "WHERE (:status IS NULL OR b.status = :status) " +
+            "AND (:travelDateFrom IS NULL OR b.travelDate >= :travelDateFrom) " +
+            "AND (:travelDateTo IS NULL OR b.travelDate <= :travelDateTo) " +
+            "ORDER BY b.id")
+    Stream<Booking> streamForExport(@Param("status") BookingStatus status,
+                                    @Param("travelDateFrom") LocalDate travelDateFrom,
+                                    @Param("travelDateTo") LocalDate travelDateTo);
 }
 
@@ -0,0 +1,22 @@
+package com.travel.booking.repository;
+
+import com.travel.booking.entity.BookingSaga;
+import com.travel.booking.entity.BookingSaga.SagaStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookingSagaRepository extends JpaRepository<BookingSaga, Long> {
+    Optional<BookingSaga> findByBookingId(Long bookingId);
+    List<BookingSaga> findByBookingIdIn(Collection<Long> bookingIds);
+    List<BookingSaga> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            SagaStatus status, LocalDateTime now, Pageable pageable);
+    List<BookingSaga> findByStatusAndUpdatedAtBeforeOrderByIdAsc(
+            SagaStatus status, LocalDateTime cutoff, Pageable pageable);
+}
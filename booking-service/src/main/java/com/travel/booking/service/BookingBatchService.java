@@ -0,0 +1,360 @@
+package com.travel.booking.service;
+
+import com.travel.booking.client.CoalescingLoader;
+import com.travel.booking.client.FlightServiceClient;
+import com.travel.booking.client.HotelServiceClient;
+import com.travel.booking.client.UserServiceClient;
+import com.travel.booking.dto.*;
+import com.travel.booking.entity.Booking;
+import com.travel.booking.entity.Booking.BookingStatus;
+import com.travel.booking.repository.BookingRepository;
+import feign.FeignException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Creates bookings in bulk. User, flight and hotel lookups are deduplicated across the
+ * batch, seat and room holds for the whole batch are taken with one all-or-nothing call to
+ * each service (falling back to one call per flight or hotel when that is rejected), and
+ * results are streamed back as each call completes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingBatchService {
+    
+    // Matches the item limit of the flight and hotel hold endpoints
+    private static final int MAX_HOLDS_PER_CALL = 500;
+    
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final BookingNotifier bookingNotifier;
+    private final BookingSagaService bookingSagaService;
+    private final UserServiceClient userServiceClient;
+    private final FlightServiceClient flightServiceClient;
+    private final HotelServiceClient hotelServiceClient;
+    private final CoalescingLoader<FlightQuoteDTO> flightQuoteLoader;
+    private final CoalescingLoader<HotelQuoteDTO> hotelQuoteLoader;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${booking.batch.lookup-concurrency:16}")
+    private int lookupConcurrency;
+    
+    @Value("${booking.batch.reservation-concurrency:8}")
+    private int reservationConcurrency;
+    
+    public Flux<BookingBatchResult> createBookings(List<BookingRequest> requests) {
+        log.info("Starting batch booking of {} requests", requests.size());
+        
+        Mono<Map<Long, UserDTO>> users = lookupAll(
+                requests, BookingRequest::getUserId, userServiceClient::getActiveUser);
+        Mono<Map<Long, FlightQuoteDTO>> flights = lookupAll(
+                requests, BookingRequest::getFlightId, flightQuoteLoader::load);
+        Mono<Map<Long, HotelQuoteDTO>> hotels = lookupAll(
+                requests, BookingRequest::getHotelId, hotelQuoteLoader::load);
+        
+        return Mono.zip(users, flights, hotels)
+                .flatMapMany(lookups -> {
+                    List<BookingBatchResult> rejected = new ArrayList<>();
+                    List<PlannedBooking> accepted = plan(
+                            requests, lookups.getT1(), lookups.getT2(), lookups.getT3(), rejected);
+                    log.info("Batch planned: {} accepted, {} rejected", accepted.size(), rejected.size());
+                    
+                    return Flux.concat(
+                            Flux.fromIterable(rejected),
+                            Mono.fromCallable(() -> persistProcessing(accepted))
+                                    .subscribeOn(Schedulers.boundedElastic())
+                                    .flatMapMany(this::reserveInventory));
+                });
+    }
+    
+    private <T> Mono<Map<Long, T>> lookupAll(List<BookingRequest> requests,
+                                             Function<BookingRequest, Long> idExtractor,
+                                             Function<Long, Mono<T>> lookup) {
+        Set<Long> ids = requests.stream().map(idExtractor).collect(Collectors.toCollection(LinkedHashSet::new));
+        return Flux.fromIterable(ids)
+                .flatMap(id -> lookup.apply(id)
+                                .map(value -> Map.entry(id, value))
+                                .onErrorResume(e -> {
+                                    log.warn("Batch lookup failed for id {}: {}", id, e.getMessage());
+                                    return Mono.empty();
+                                }),
+                        lookupConcurrency)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+    
+    private List<PlannedBooking> plan(List<BookingRequest> requests,
+                                      Map<Long, UserDTO> users,
+                                      Map<Long, FlightQuoteDTO> flights,
+                                      Map<Long, HotelQuoteDTO> hotels,
+                                      List<BookingBatchResult> rejected) {
+        Map<Long, Integer> seatsLeft = new HashMap<>();
+        flights.forEach((id, quote) -> seatsLeft.put(id, quote.getAvailableSeats()));
+        Map<Long, Integer> roomsLeft = new HashMap<>();
+        hotels.forEach((id, quote) -> roomsLeft.put(id, quote.getAvailableRooms()));
+        
+        List<PlannedBooking> accepted = new ArrayList<>();
+        for (int index = 0; index < requests.size(); index++) {
+            BookingRequest request = requests.get(index);
+            FlightQuoteDTO flight = flights.get(request.getFlightId());
+            HotelQuoteDTO hotel = hotels.get(request.getHotelId());
+            
+            String rejection = null;
+            if (!users.containsKey(request.getUserId())) {
+                rejection = "User validation failed. User ID: " + request.getUserId();
+            } else if (flight == null || !Boolean.TRUE.equals(flight.getAvailable())) {
+                rejection = "Flight is not available. Flight ID: " + request.getFlightId();
+            } else if (hotel == null || !Boolean.TRUE.equals(hotel.getAvailable())) {
+                rejection = "Hotel is not available. Hotel ID: " + request.getHotelId();
+            } else if (seatsLeft.get(request.getFlightId()) < request.getPassengers()) {
+                rejection = "Not enough seats left on flight " + request.getFlightId() + " for this batch";
+            } else if (roomsLeft.get(request.getHotelId()) < request.getRooms()) {
+                rejection = "Not enough rooms left at hotel " + request.getHotelId() + " for this batch";
+            }
+            
+            if (rejection != null) {
+                rejected.add(BookingBatchResult.failure(index, rejection, null));
+                continue;
+            }
+            
+            seatsLeft.merge(request.getFlightId(), -request.getPassengers(), Integer::sum);
+            roomsLeft.merge(request.getHotelId(), -request.getRooms(), Integer::sum);
+            accepted.add(new PlannedBooking(index, users.get(request.getUserId()), toBooking(request, flight, hotel)));
+        }
+        return accepted;
+    }
+    
+    private Booking toBooking(BookingRequest request, FlightQuoteDTO flight, HotelQuoteDTO hotel) {
+        Booking booking = new Booking();
+        booking.setUserId(request.getUserId());
+        booking.setFlightId(request.getFlightId());
+        booking.setHotelId(request.getHotelId());
+        booking.setTravelDate(request.getTravelDate());
+        booking.setPassengers(request.getPassengers());
+        booking.setRooms(request.getRooms());
+        bookingService.applyPrices(booking, flight, hotel);
+        // PENDING, and so payable, only once its seats and rooms are held
+        booking.setStatus(BookingStatus.PROCESSING);
+        return booking;
+    }
+    
+    private List<PlannedBooking> persistProcessing(List<PlannedBooking> planned) {
+        List<Booking> bookings = bookings(planned);
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingRepository.saveAll(bookings);
+            bookingSagaService.startAll(bookings);
+        });
+        return planned;
+    }
+    
+    private Flux<BookingBatchResult> reserveInventory(List<PlannedBooking> planned) {
+        // Seats first; only bookings holding their seats go on to the room step. Each seat call
+        // is followed up as soon as it resolves, so its failures are streamed right away and its
+        // seated bookings move on to their rooms while other seat calls are still running.
+        Map<Long, List<PlannedBooking>> byFlight = planned.stream()
+                .collect(Collectors.groupingBy(p -> p.getBooking().getFlightId(), LinkedHashMap::new, Collectors.toList()));
+        
+        return reserveGroups(byFlight, "flight", this::holdSeats)
+                .flatMap(outcomes -> {
+                    List<BookingBatchResult> failed = new ArrayList<>();
+                    List<PlannedBooking> seated = new ArrayList<>();
+                    outcomes.forEach(outcome -> {
+                        if (outcome.failure == null) {
+                            bookingSagaService.markSeatsHeld(outcome.holdIds);
+                            seated.addAll(outcome.bookings);
+                        } else {
+                            failed.addAll(fail(outcome));
+                        }
+                    });
+                    
+                    Map<Long, List<PlannedBooking>> byHotel = seated.stream()
+                            .collect(Collectors.groupingBy(p -> p.getBooking().getHotelId(), LinkedHashMap::new, Collectors.toList()));
+                    
+                    return Flux.concat(
+                            Flux.fromIterable(failed),
+                            reserveGroups(byHotel, "hotel", this::holdRooms)
+                                    .concatMapIterable(resolved -> resolved.stream()
+                                            .flatMap(outcome -> (outcome.failure == null ? confirm(outcome) : fail(outcome)).stream())
+                                            .collect(Collectors.toList())));
+                }, reservationConcurrency);
+    }
+    
+    private List<String> holdSeats(List<Booking> bookings) {
+        return flightServiceClient.createSeatHolds(new SeatReservationRequest(bookings.stream()
+                        .map(booking -> new SeatReservation(booking.getFlightId(), booking.getPassengers()))
+                        .collect(Collectors.toList())))
+                .getData().stream().map(SeatHoldDTO::getHoldId).collect(Collectors.toList());
+    }
+    
+    private List<String> holdRooms(List<Booking> bookings) {
+        return hotelServiceClient.createRoomHolds(new RoomReservationRequest(bookings.stream()
+                        .map(booking -> new RoomReservation(booking.getHotelId(), booking.getRooms()))
+                        .collect(Collectors.toList())))
+                .getData().stream().map(RoomHoldDTO::getHoldId).collect(Collectors.toList());
+    }
+    
+    /**
+     * Holds every booking of every group with a single all-or-nothing call, one hold per
+     * booking. A rejection (4xx) means nothing is held, so the groups are then held one call
+     * each to isolate the ones that cannot be covered. Any other failure leaves it unknown what
+     * was held, so every group fails; holds that were taken anyway expire on their own.
+     * <p>
+     * Outcomes are emitted together per call as soon as that call resolves.
+     */
+    private Flux<List<ReservationOutcome>> reserveGroups(Map<Long, List<PlannedBooking>> groups, String target,
+                                                         Function<List<Booking>, List<String>> hold) {
+        List<Map.Entry<Long, List<PlannedBooking>>> chunks = chunks(groups);
+        List<PlannedBooking> all = chunks.stream()
+                .flatMap(chunk -> chunk.getValue().stream())
+                .collect(Collectors.toList());
+        if (chunks.size() < 2 || all.size() > MAX_HOLDS_PER_CALL) {
+            return reserveEach(chunks, target, hold);
+        }
+        return Mono.fromCallable(() -> hold.apply(bookings(all)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(holdIds -> {
+                    List<ReservationOutcome> outcomes = new ArrayList<>(chunks.size());
+                    int offset = 0;
+                    for (Map.Entry<Long, List<PlannedBooking>> chunk : chunks) {
+                        int size = chunk.getValue().size();
+                        outcomes.add(held(chunk.getValue(), holdIds.subList(offset, offset + size)));
+                        offset += size;
+                    }
+                    return outcomes;
+                })
+                .flux()
+                .onErrorResume(FeignException.FeignClientException.class, e -> {
+                    log.warn("Holds on {} {}s rejected ({}), holding them one by one",
+                            groups.size(), target, e.status());
+                    return reserveEach(chunks, target, hold);
+                })
+                .onErrorResume(e -> {
+                    log.error("Failed to hold units on {} {}s", groups.size(), target, e);
+                    return Flux.just(chunks.stream()
+                            .map(chunk -> new ReservationOutcome(chunk.getValue(), Map.of(), e))
+                            .collect(Collectors.toList()));
+                });
+    }
+    
+    private Flux<List<ReservationOutcome>> reserveEach(List<Map.Entry<Long, List<PlannedBooking>>> chunks, String target,
+                                                       Function<List<Booking>, List<String>> hold) {
+        return Flux.fromIterable(chunks)
+                .flatMap(chunk -> Mono.fromCallable(() -> held(chunk.getValue(), hold.apply(bookings(chunk.getValue()))))
+                                .subscribeOn(Schedulers.boundedElastic())
+                                .onErrorResume(e -> {
+                                    log.error("Failed to hold units for {} bookings on {} {}",
+                                            chunk.getValue().size(), target, chunk.getKey(), e);
+                                    return Mono.just(new ReservationOutcome(chunk.getValue(), Map.of(), e));
+                                })
+                                .map(List::of),
+                        reservationConcurrency);
+    }
+    
+    // Groups larger than one hold call are split, and each part succeeds or fails on its own
+    private List<Map.Entry<Long, List<PlannedBooking>>> chunks(Map<Long, List<PlannedBooking>> groups) {
+        List<Map.Entry<Long, List<PlannedBooking>>> chunks = new ArrayList<>();
+        groups.forEach((id, bookings) -> {
+            for (int from = 0; from < bookings.size(); from += MAX_HOLDS_PER_CALL) {
+                chunks.add(Map.entry(id, bookings.subList(from, Math.min(from + MAX_HOLDS_PER_CALL, bookings.size()))));
+            }
+        });
+        return chunks;
+    }
+    
+    private ReservationOutcome held(List<PlannedBooking> bookings, List<String> holdIds) {
+        Map<Long, String> byBooking = new HashMap<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            byBooking.put(bookings.get(i).getBooking().getId(), holdIds.get(i));
+        }
+        return new ReservationOutcome(bookings, byBooking, null);
+    }
+    
+    private List<Booking> bookings(List<PlannedBooking> planned) {
+        return planned.stream().map(PlannedBooking::getBooking).collect(Collectors.toList());
+    }
+    
+    private List<BookingBatchResult> confirm(ReservationOutcome outcome) {
+        bookingSagaService.markReserved(outcome.holdIds);
+        List<Booking> bookings = new ArrayList<>(outcome.bookings.size());
+        List<UserDTO> users = new ArrayList<>(outcome.bookings.size());
+        outcome.bookings.forEach(planned -> {
+            bookings.add(planned.getBooking());
+            users.add(planned.getUser());
+        });
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bookings.forEach(booking -> booking.setStatus(BookingStatus.PENDING));
+                bookingRepository.saveAll(bookings);
+                bookingNotifier.queueAll(bookings, users,
+                        "Booking Created", "Your booking has been created and is pending payment.");
+            });
+        } catch (RuntimeException e) {
+            log.error("Failed to record {} reserved bookings", bookings.size(), e);
+            return failAndRelease(outcome, "Failed to record booking: " + e.getMessage());
+        }
+        
+        return outcome.bookings.stream()
+                .map(planned -> BookingBatchResult.success(planned.getIndex(), bookingService.mapToDTO(planned.getBooking())))
+                .collect(Collectors.toList());
+    }
+    
+    private List<BookingBatchResult> fail(ReservationOutcome outcome) {
+        List<Booking> bookings = bookings(outcome.bookings);
+        bookings.forEach(booking -> booking.setStatus(BookingStatus.FAILED));
+        String message = "Failed to reserve resources: " + outcome.failure.getMessage();
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingRepository.saveAll(bookings);
+            bookingSagaService.compensate(bookingIds(outcome), message);
+        });
+        
+        return outcome.bookings.stream()
+                .map(planned -> BookingBatchResult.failure(
+                        planned.getIndex(), message, bookingService.mapToDTO(planned.getBooking())))
+                .collect(Collectors.toList());
+    }
+    
+    // Fails bookings whose holds were all taken, releasing them along with the status change
+    private List<BookingBatchResult> failAndRelease(ReservationOutcome outcome, String message) {
+        List<Booking> bookings = bookings(outcome.bookings);
+        bookings.forEach(booking -> booking.setStatus(BookingStatus.FAILED));
+        transactionTemplate.executeWithoutResult(status -> {
+            bookingRepository.saveAll(bookings);
+            bookingSagaService.release(bookingIds(outcome));
+        });
+        
+        return outcome.bookings.stream()
+                .map(planned -> BookingBatchResult.failure(
+                        planned.getIndex(), message, bookingService.mapToDTO(planned.getBooking())))
+                .collect(Collectors.toList());
+    }
+    
+    private List<Long> bookingIds(ReservationOutcome outcome) {
+        return outcome.bookings.stream().map(planned -> planned.getBooking().getId()).collect(Collectors.toList());
+    }
+    
+    @Getter
+    @RequiredArgsConstructor
+    private static class PlannedBooking {
+        private final int index;
+        private final UserDTO user;
+        private final Booking booking;
+    }
+    
+    @RequiredArgsConstructor
+    private static class ReservationOutcome {
+        private final List<PlannedBooking> bookings;
+        private final Map<Long, String> holdIds;
+        private final Throwable failure;
+    }
+}
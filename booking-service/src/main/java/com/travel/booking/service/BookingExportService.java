@@ -0,0 +1,56 @@
+package com.travel.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.travel.booking.entity.Booking;
+import com.travel.booking.entity.Booking.BookingStatus;
+import com.travel.booking.repository.BookingRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes bookings as newline-delimited JSON straight from a database cursor, so memory
+ * use stays flat no matter how many rows match.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExportService {
+    
+    // Matches the fetch size on BookingRepository.streamForExport
+    private static final int CLEAR_INTERVAL = 500;
+    
+    private final BookingRepository bookingRepository;
+    private final BookingService bookingService;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    
+    @Transactional(readOnly = true)
+    public void exportBookings(BookingStatus status, LocalDate travelDateFrom, LocalDate travelDateTo,
+                               OutputStream out) throws IOException {
+        long exported = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamForExport(status, travelDateFrom, travelDateTo)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                out.write(objectMapper.writeValueAsBytes(bookingService.mapToDTO(iterator.next())));
+                out.write('\n');
+                if (++exported % CLEAR_INTERVAL == 0) {
+                    // Detach rows already written so the persistence context does not grow with the export
+                    entityManager.clear();
+                    out.flush();
+                }
+            }
+        }
+        out.flush();
+        log.info("Exported {} bookings (status={}, travelDate {} to {})",
+                exported, status, travelDateFrom, travelDateTo);
+    }
+}
@@ -0,0 +1,58 @@
+package com.travel.booking.service;
+
+import com.travel.booking.dto.UserDTO;
+import com.travel.booking.entity.Booking;
+import com.travel.booking.entity.NotificationOutbox;
+import com.travel.booking.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Queues booking notifications in the outbox as part of the caller's transaction;
+ * {@link NotificationOutboxDispatcher} delivers them afterwards.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingNotifier {
+    
+    private final NotificationOutboxRepository notificationOutboxRepository;
+    
+    public void queue(UserDTO user, Booking booking, String subject, String message) {
+        notificationOutboxRepository.save(toOutboxEntry(user.getId(), user.getEmail(), booking, subject, message));
+        log.info("Notification queued for booking: {}", booking.getId());
+    }
+    
+    /**
+     * Queues a notification for the booking's user without an address; the dispatcher looks
+     * the recipient up before sending, outside of the caller's transaction.
+     */
+    public void queue(Booking booking, String subject, String message) {
+        notificationOutboxRepository.save(toOutboxEntry(booking.getUserId(), null, booking, subject, message));
+        log.info("Notification queued for booking: {}", booking.getId());
+    }
+    
+    public void queueAll(List<Booking> bookings, List<UserDTO> users, String subject, String message) {
+        List<NotificationOutbox> entries = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            entries.add(toOutboxEntry(users.get(i).getId(), users.get(i).getEmail(), bookings.get(i), subject, message));
+        }
+        notificationOutboxRepository.saveAll(entries);
+        log.info("Notifications queued for {} bookings", entries.size());
+    }
+    
+    private NotificationOutbox toOutboxEntry(Long userId, String recipient, Booking booking, String subject, String message) {
+        NotificationOutbox entry = new NotificationOutbox();
+        entry.setUserId(userId);
+        entry.setBookingId(booking.getId());
+        entry.setRecipient(recipient);
+        entry.setSubject(subject);
+        entry.setMessage(message);
+        entry.setType("EMAIL");
+        return entry;
+    }
+}
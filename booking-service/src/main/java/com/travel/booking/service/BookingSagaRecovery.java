@@ -0,0 +1,236 @@
+package com.travel.booking.service;
+
+import com.travel.booking.client.FlightServiceClient;
+import com.travel.booking.client.HotelServiceClient;
+import com.travel.booking.dto.HoldBatchRequest;
+import com.travel.booking.entity.BookingSaga;
+import com.travel.booking.entity.BookingSaga.SagaStatus;
+import com.travel.booking.repository.BookingSagaRepository;
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Confirms the holds of paid bookings and gives back the holds of bookings queued for
+ * compensation. Each batch of sagas is sent as one call to the flight service and one to the
+ * hotel service, and failed sagas are retried with exponential backoff. Sagas left RESERVING
+ * by a crashed or restarted instance are failed once they go stale, so their inventory is
+ * recovered as well.
+ * <p>
+ * A paid booking whose holds cannot be confirmed is failed and its holds are released, so
+ * the half that was confirmed is not kept for a booking that will be refunded.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingSagaRecovery {
+    
+    private final BookingSagaRepository sagaRepository;
+    private final BookingService bookingService;
+    private final FlightServiceClient flightServiceClient;
+    private final HotelServiceClient hotelServiceClient;
+    
+    @Value("${booking.saga.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${booking.saga.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${booking.saga.initial-backoff:2s}")
+    private Duration initialBackoff;
+    
+    @Value("${booking.saga.max-backoff:5m}")
+    private Duration maxBackoff;
+    
+    @Value("${booking.saga.stale-after:2m}")
+    private Duration staleAfter;
+    
+    @Scheduled(fixedDelayString = "${booking.saga.poll-interval-ms:1000}")
+    public void recover() {
+        failStaleReservations();
+        confirmHolds();
+        releaseHolds();
+    }
+    
+    private void confirmHolds() {
+        List<BookingSaga> batch = due(SagaStatus.CONFIRMING);
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        // Confirming a hold twice is harmless, so a saga that failed halfway just retries both
+        Map<Long, Exception> failures = new HashMap<>();
+        applyToHolds(batch, BookingSaga::getSeatHoldId, "seat", flightServiceClient::confirmSeatHolds, failures);
+        applyToHolds(batch, BookingSaga::getRoomHoldId, "room", hotelServiceClient::confirmRoomHolds, failures);
+        
+        // Given up on sagas stay CONFIRMING until their booking is failed, which queues the release
+        List<BookingSaga> givenUp = new ArrayList<>();
+        int confirmed = complete(batch, failures, SagaStatus.CONFIRMED, "confirming", SagaStatus.CONFIRMING, givenUp);
+        log.info("Confirmed holds of {} of {} booking sagas", confirmed, batch.size());
+        if (givenUp.isEmpty()) {
+            return;
+        }
+        try {
+            bookingService.failPaidBookings(givenUp.stream().map(BookingSaga::getBookingId).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            log.error("Failed to fail {} paid bookings whose holds could not be confirmed, will retry",
+                    givenUp.size(), e);
+        }
+    }
+    
+    private void releaseHolds() {
+        List<BookingSaga> batch = due(SagaStatus.COMPENSATING);
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        // Releasing is idempotent as well
+        Map<Long, Exception> failures = new HashMap<>();
+        applyToHolds(batch, saga -> saga.getSeatsHeld() ? saga.getSeatHoldId() : null, "seat",
+                flightServiceClient::releaseSeatHolds, failures);
+        applyToHolds(batch, saga -> saga.getRoomsHeld() ? saga.getRoomHoldId() : null, "room",
+                hotelServiceClient::releaseRoomHolds, failures);
+        batch.stream()
+                .filter(saga -> !failures.containsKey(saga.getId()))
+                .forEach(saga -> {
+                    saga.setSeatsHeld(false);
+                    saga.setRoomsHeld(false);
+                });
+        
+        int compensated = complete(batch, failures, SagaStatus.COMPENSATED, "releasing", SagaStatus.FAILED, new ArrayList<>());
+        log.info("Compensated {} of {} booking sagas", compensated, batch.size());
+    }
+    
+    private List<BookingSaga> due(SagaStatus status) {
+        return sagaRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                status, LocalDateTime.now(), PageRequest.of(0, batchSize));
+    }
+    
+    private void failStaleReservations() {
+        List<BookingSaga> stale = sagaRepository.findByStatusAndUpdatedAtBeforeOrderByIdAsc(
+                SagaStatus.RESERVING, LocalDateTime.now().minus(staleAfter), PageRequest.of(0, batchSize));
+        for (BookingSaga saga : stale) {
+            try {
+                log.warn("Saga of booking {} is stuck reserving, failing the booking", saga.getBookingId());
+                saga.setStatus(SagaStatus.COMPENSATING);
+                saga.setNextAttemptAt(LocalDateTime.now());
+                saga.setLastError("Reservation did not complete");
+                sagaRepository.save(saga);
+                bookingService.rejectBooking(saga.getBookingId());
+            } catch (RuntimeException e) {
+                log.error("Failed to resume saga of booking {}", saga.getBookingId(), e);
+            }
+        }
+    }
+    
+    /**
+     * Sends the holds of the whole batch in one call. The call is all-or-nothing, so when it
+     * is rejected (4xx) the holds are sent again one by one to find the sagas it failed for.
+     */
+    private void applyToHolds(List<BookingSaga> batch,
+                              Function<BookingSaga, String> holdId,
+                              String holdType,
+                              Consumer<HoldBatchRequest> call,
+                              Map<Long, Exception> failures) {
+        Map<String, BookingSaga> byHold = new LinkedHashMap<>();
+        batch.forEach(saga -> {
+            String id = holdId.apply(saga);
+            if (id != null) {
+                byHold.put(id, saga);
+            }
+        });
+        if (byHold.isEmpty()) {
+            return;
+        }
+        
+        try {
+            call.accept(new HoldBatchRequest(new ArrayList<>(byHold.keySet())));
+        } catch (FeignException.FeignClientException e) {
+            if (byHold.size() == 1) {
+                byHold.values().forEach(saga -> failures.putIfAbsent(saga.getId(), e));
+                return;
+            }
+            log.warn("Batch of {} {} holds rejected ({}), retrying them one by one", byHold.size(), holdType, e.status());
+            byHold.forEach((id, saga) -> {
+                try {
+                    call.accept(new HoldBatchRequest(List.of(id)));
+                } catch (Exception single) {
+                    failures.putIfAbsent(saga.getId(), single);
+                }
+            });
+        } catch (Exception e) {
+            log.warn("Failed to update {} {} holds: {}", byHold.size(), holdType, e.getMessage());
+            byHold.values().forEach(saga -> failures.putIfAbsent(saga.getId(), e));
+        }
+    }
+    
+    private int complete(List<BookingSaga> batch, Map<Long, Exception> failures, SagaStatus done, String action,
+                         SagaStatus givenUpStatus, List<BookingSaga> givenUp) {
+        int completed = 0;
+        for (BookingSaga saga : batch) {
+            Exception failure = failures.get(saga.getId());
+            if (failure != null) {
+                if (markFailedAttempt(saga, failure, action)) {
+                    saga.setStatus(givenUpStatus);
+                    givenUp.add(saga);
+                }
+            } else {
+                saga.setAttempts(saga.getAttempts() + 1);
+                saga.setStatus(done);
+                saga.setLastError(null);
+                completed++;
+            }
+            try {
+                sagaRepository.save(saga);
+            } catch (RuntimeException e) {
+                log.error("Failed to record {} holds of booking {}", action, saga.getBookingId(), e);
+            }
+        }
+        return completed;
+    }
+    
+    /**
+     * Records a failed attempt and schedules the next one. Returns true when retrying is
+     * pointless, leaving it to the caller to move the saga on.
+     */
+    private boolean markFailedAttempt(BookingSaga saga, Exception e, String action) {
+        int attempts = saga.getAttempts() + 1;
+        saga.setAttempts(attempts);
+        saga.setLastError(truncate(e.getMessage()));
+        long backoffMillis = Math.min(
+                initialBackoff.toMillis() << Math.min(attempts - 1, 20),
+                maxBackoff.toMillis());
+        saga.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis)));
+        
+        // A hold that is gone or no longer active will not come back by retrying
+        boolean permanent = e instanceof FeignException.NotFound || e instanceof FeignException.Conflict;
+        if (permanent || attempts >= maxAttempts) {
+            log.error("Giving up on {} holds of booking {} after {} attempts (seat hold: {}, room hold: {}): {}",
+                    action, saga.getBookingId(), attempts, saga.getSeatHoldId(), saga.getRoomHoldId(), e.getMessage());
+            return true;
+        }
+        return false;
+    }
+    
+    static String truncate(String message) {
+        if (message == null || message.length() <= 1000) {
+            return message;
+        }
+        return message.substring(0, 1000);
+    }
+}
@@ -0,0 +1,187 @@
+package com.travel.booking.service;
+
+import com.travel.booking.client.FlightServiceClient;
+import com.travel.booking.client.HotelServiceClient;
+import com.travel.booking.dto.RoomHoldDTO;
+import com.travel.booking.dto.RoomReservation;
+import com.travel.booking.dto.RoomReservationRequest;
+import com.travel.booking.dto.SeatHoldDTO;
+import com.travel.booking.dto.SeatReservation;
+import com.travel.booking.dto.SeatReservationRequest;
+import com.travel.booking.entity.Booking;
+import com.travel.booking.entity.BookingSaga;
+import com.travel.booking.entity.BookingSaga.SagaStatus;
+import com.travel.booking.repository.BookingSagaRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Records the seat and room holds taken for each booking. A step is only marked as held
+ * once the downstream call succeeded, and confirming or undoing a booking just flags its
+ * saga; the confirmations and releases themselves are sent by {@link BookingSagaRecovery}.
+ * A hold taken by a call whose outcome was never recorded expires on its own.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingSagaService {
+    
+    private static final Set<SagaStatus> RELEASABLE = EnumSet.of(
+            SagaStatus.RESERVING, SagaStatus.RESERVED, SagaStatus.CONFIRMING, SagaStatus.CONFIRMED);
+    private static final Set<SagaStatus> UNCONFIRMABLE = EnumSet.of(
+            SagaStatus.RESERVING, SagaStatus.COMPENSATING, SagaStatus.COMPENSATED, SagaStatus.FAILED);
+    
+    private final BookingSagaRepository sagaRepository;
+    private final FlightServiceClient flightServiceClient;
+    private final HotelServiceClient hotelServiceClient;
+    
+    public BookingSaga start(Booking booking) {
+        return sagaRepository.save(newSaga(booking));
+    }
+    
+    public List<BookingSaga> startAll(List<Booking> bookings) {
+        return sagaRepository.saveAll(bookings.stream().map(this::newSaga).collect(Collectors.toList()));
+    }
+    
+    /**
+     * Holds the seats and rooms of a booking whose saga was started with {@link #start}.
+     * If either step fails, whatever was already held is queued for release and the
+     * failure is rethrown.
+     */
+    public void reserve(BookingSaga saga) {
+        try {
+            SeatHoldDTO seatHold = flightServiceClient.createSeatHolds(new SeatReservationRequest(
+                    List.of(new SeatReservation(saga.getFlightId(), saga.getSeats())))).getData().get(0);
+            saga.setSeatHoldId(seatHold.getHoldId());
+            saga.setSeatsHeld(true);
+            saga = sagaRepository.save(saga);
+            
+            RoomHoldDTO roomHold = hotelServiceClient.createRoomHolds(new RoomReservationRequest(
+                    List.of(new RoomReservation(saga.getHotelId(), saga.getRooms())))).getData().get(0);
+            saga.setRoomHoldId(roomHold.getHoldId());
+            saga.setRoomsHeld(true);
+            saga.setStatus(SagaStatus.RESERVED);
+            sagaRepository.save(saga);
+        } catch (RuntimeException e) {
+            compensate(saga, e.getMessage());
+            throw e;
+        }
+    }
+    
+    /**
+     * Records the seat holds taken for a batch of bookings, keyed by booking id.
+     */
+    @Transactional
+    public void markSeatsHeld(Map<Long, String> seatHoldIds) {
+        List<BookingSaga> sagas = sagaRepository.findByBookingIdIn(seatHoldIds.keySet());
+        sagas.forEach(saga -> {
+            saga.setSeatHoldId(seatHoldIds.get(saga.getBookingId()));
+            saga.setSeatsHeld(true);
+        });
+        sagaRepository.saveAll(sagas);
+    }
+    
+    @Transactional
+    public void markReserved(Map<Long, String> roomHoldIds) {
+        List<BookingSaga> sagas = sagaRepository.findByBookingIdIn(roomHoldIds.keySet());
+        sagas.forEach(saga -> {
+            saga.setRoomHoldId(roomHoldIds.get(saga.getBookingId()));
+            saga.setRoomsHeld(true);
+            saga.setStatus(SagaStatus.RESERVED);
+        });
+        sagaRepository.saveAll(sagas);
+    }
+    
+    /**
+     * Queues the holds of paid bookings for confirmation, which {@link BookingSagaRecovery}
+     * sends in batches. Until then the holds keep the inventory, and a hold that expires
+     * before it is confirmed is taken again if the units are still available.
+     * <p>
+     * Returns the bookings that can no longer be confirmed: their reservation never completed
+     * or is already being given back. Bookings confirmed before are left as they are.
+     */
+    @Transactional
+    public List<Long> confirm(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return List.of();
+        }
+        List<BookingSaga> sagas = sagaRepository.findByBookingIdIn(bookingIds);
+        List<BookingSaga> reserved = sagas.stream()
+                .filter(saga -> saga.getStatus() == SagaStatus.RESERVED)
+                .collect(Collectors.toList());
+        reserved.forEach(saga -> {
+            saga.setStatus(SagaStatus.CONFIRMING);
+            saga.setNextAttemptAt(LocalDateTime.now());
+        });
+        sagaRepository.saveAll(reserved);
+        return sagas.stream()
+                .filter(saga -> UNCONFIRMABLE.contains(saga.getStatus()))
+                .map(BookingSaga::getBookingId)
+                .collect(Collectors.toList());
+    }
+    
+    @Transactional
+    public void compensate(Collection<Long> bookingIds, String reason) {
+        List<BookingSaga> sagas = sagaRepository.findByBookingIdIn(bookingIds);
+        sagas.forEach(saga -> markCompensating(saga, reason));
+        sagaRepository.saveAll(sagas);
+    }
+    
+    /**
+     * Queues the inventory held by cancelled or failed bookings for release. Bookings
+     * without a saga, or whose saga is already being undone, are left untouched.
+     */
+    @Transactional
+    public void release(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        List<BookingSaga> sagas = sagaRepository.findByBookingIdIn(bookingIds).stream()
+                .filter(saga -> RELEASABLE.contains(saga.getStatus()))
+                .collect(Collectors.toList());
+        sagas.forEach(saga -> markCompensating(saga, "Booking " + saga.getBookingId() + " was released"));
+        sagaRepository.saveAll(sagas);
+    }
+    
+    private void compensate(BookingSaga saga, String reason) {
+        try {
+            markCompensating(saga, reason);
+            sagaRepository.save(saga);
+        } catch (RuntimeException e) {
+            // The saga stays RESERVING and is picked up once it goes stale
+            log.error("Failed to queue compensation for booking {}", saga.getBookingId(), e);
+        }
+    }
+    
+    private void markCompensating(BookingSaga saga, String reason) {
+        boolean holdsInventory = saga.getSeatsHeld() || saga.getRoomsHeld();
+        saga.setStatus(holdsInventory ? SagaStatus.COMPENSATING : SagaStatus.COMPENSATED);
+        saga.setAttempts(0);
+        saga.setNextAttemptAt(LocalDateTime.now());
+        saga.setLastError(BookingSagaRecovery.truncate(reason));
+        if (holdsInventory) {
+            log.info("Queued release of inventory held by booking {}", saga.getBookingId());
+        }
+    }
+    
+    private BookingSaga newSaga(Booking booking) {
+        BookingSaga saga = new BookingSaga();
+        saga.setBookingId(booking.getId());
+        saga.setFlightId(booking.getFlightId());
+        saga.setHotelId(booking.getHotelId());
+        saga.setSeats(booking.getPassengers());
+        saga.setRooms(booking.getRooms());
+        saga.setStatus(SagaStatus.RESERVING);
+        return saga;
+    }
+}
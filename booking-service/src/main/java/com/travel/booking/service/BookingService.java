@@ -1,23 +1,39 @@
 package com.travel.booking.service;
 
-import com.travel.booking.client.FlightServiceClient;
-import com.travel.booking.client.HotelServiceClient;
+import com.travel.booking.client.CoalescingLoader;
+import com.travel.booking.client.UserServiceClient;
 import com.travel.booking.dto.*;
 import com.travel.booking.entity.Booking;
 import com.travel.booking.entity.Booking.BookingStatus;
+import com.travel.booking.entity.BookingSaga;
+import com.travel.booking.event.BookingStatusChangedEvent;
 import com.travel.booking.exception.BookingException;
+import com.travel.booking.exception.DownstreamUnavailableException;
 import com.travel.booking.exception.ResourceNotFoundException;
 import com.travel.booking.repository.BookingRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple3;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,153 +41,216 @@ import java.util.stream.Collectors;
 @Slf4j
 public class BookingService {
     
-    private final BookingRepository bookingRepository;
-    private final FlightServiceClient flightServiceClient;
-    private final HotelServiceClient hotelServiceClient;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
     
-    @Qualifier("userWebClient")
-    private final WebClient userWebClient;
+    private final BookingRepository bookingRepository;
+    private final BookingNotifier bookingNotifier;
+    private final UserServiceClient userServiceClient;
+    private final CoalescingLoader<FlightQuoteDTO> flightQuoteLoader;
+    private final CoalescingLoader<HotelQuoteDTO> hotelQuoteLoader;
+    private final BookingSagaService bookingSagaService;
+    private final LatencyMetrics latencyMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
     
-    @Qualifier("notificationWebClient")
-    private final WebClient notificationWebClient;
+    @Value("${booking.lookup.timeout:5s}")
+    private Duration lookupTimeout;
     
-    @Transactional
     public BookingDTO createBooking(BookingRequest request) {
         log.info("Starting booking process for user: {}", request.getUserId());
         
-        // Step 1: Validate user via WebClient
-        log.info("Step 1: Validating user");
-        boolean isValidUser = validateUser(request.getUserId());
-        if (!isValidUser) {
-            throw new BookingException("User validation failed. User ID: " + request.getUserId());
-        }
-        UserDTO user = getUserDetails(request.getUserId());
-        
-        // Step 2: Check flight availability via Feign Client
-        log.info("Step 2: Checking flight availability");
-        ApiResponse<Map<String, Boolean>> flightAvailability = 
-                flightServiceClient.checkAvailability(request.getFlightId());
-        if (flightAvailability.getData() == null || !flightAvailability.getData().get("available")) {
-            throw new BookingException("Flight is not available. Flight ID: " + request.getFlightId());
-        }
-        ApiResponse<FlightDTO> flightResponse = flightServiceClient.getFlightById(request.getFlightId());
-        FlightDTO flight = flightResponse.getData();
-        
-        // Step 3: Check hotel availability via Feign Client
-        log.info("Step 3: Checking hotel availability");
-        ApiResponse<Map<String, Boolean>> hotelAvailability = 
-                hotelServiceClient.checkAvailability(request.getHotelId());
-        if (hotelAvailability.getData() == null || !hotelAvailability.getData().get("available")) {
-            throw new BookingException("Hotel is not available. Hotel ID: " + request.getHotelId());
-        }
-        ApiResponse<HotelDTO> hotelResponse = hotelServiceClient.getHotelById(request.getHotelId());
-        HotelDTO hotel = hotelResponse.getData();
+        Booking booking = newBooking(request);
+        
+        // Steps 1-3: Validate user, check flight and hotel availability concurrently
+        log.info("Steps 1-3: Validating user and checking flight and hotel availability");
+        Tuple3<UserDTO, FlightQuoteDTO, HotelQuoteDTO> lookups = latencyMetrics.recordStep("availability", () ->
+                checkAvailability(booking));
+        UserDTO user = lookups.getT1();
         
         // Step 4: Calculate total cost
         log.info("Step 4: Calculating total cost");
-        BigDecimal totalCost = flight.getPrice().add(hotel.getPricePerNight());
+        applyPrices(booking, lookups.getT2(), lookups.getT3());
         
-        // Step 5: Create and save booking as PENDING
-        log.info("Step 5: Creating booking as PENDING");
-        Booking booking = new Booking();
-        booking.setUserId(request.getUserId());
-        booking.setFlightId(request.getFlightId());
-        booking.setHotelId(request.getHotelId());
-        booking.setTravelDate(request.getTravelDate());
-        booking.setFlightPrice(flight.getPrice());
-        booking.setHotelPrice(hotel.getPricePerNight());
-        booking.setTotalCost(totalCost);
-        booking.setStatus(BookingStatus.PENDING);
+        // Step 5: Save the booking so the saga can refer to it
+        log.info("Step 5: Saving booking while its resources are reserved");
+        booking.setStatus(BookingStatus.PROCESSING);
         
-        Booking savedBooking = bookingRepository.save(booking);
+        // Remote calls stay outside of any transaction; the saga records each completed step
+        BookingSaga saga = latencyMetrics.recordStep("persist", () -> transactionTemplate.execute(status -> {
+            bookingRepository.save(booking);
+            return bookingSagaService.start(booking);
+        }));
         
         // Step 6: Reserve flight and hotel
         log.info("Step 6: Reserving flight and hotel");
         try {
-            flightServiceClient.reserveSeat(request.getFlightId());
-            hotelServiceClient.reserveRoom(request.getHotelId());
-        } catch (Exception e) {
+            latencyMetrics.recordStep("reserve", () -> bookingSagaService.reserve(saga));
+        } catch (RuntimeException e) {
             log.error("Failed to reserve resources", e);
-            savedBooking.setStatus(BookingStatus.FAILED);
-            bookingRepository.save(savedBooking);
+            failAndRelease(booking);
+            if (e instanceof DownstreamUnavailableException) {
+                throw e;
+            }
             throw new BookingException("Failed to reserve resources: " + e.getMessage());
         }
         
-        // Step 7: Send notification via WebClient
-        log.info("Step 7: Sending booking notification");
-        sendNotification(user, savedBooking, "Booking Created", 
-                "Your booking has been created and is pending payment.");
+        // Step 7: Mark the booking PENDING and queue its notification in the same transaction
+        log.info("Step 7: Marking booking as PENDING and queueing booking notification");
+        try {
+            latencyMetrics.recordStep("notification", () -> transactionTemplate.executeWithoutResult(status -> {
+                booking.setStatus(BookingStatus.PENDING);
+                bookingRepository.save(booking);
+                sendNotification(user, booking, "Booking Created",
+                        "Your booking has been created and is pending payment.");
+            }));
+        } catch (RuntimeException e) {
+            log.error("Failed to record reserved booking {}", booking.getId(), e);
+            failAndRelease(booking);
+            throw new BookingException("Failed to record booking: " + e.getMessage());
+        }
         
-        log.info("Booking created successfully with ID: {}", savedBooking.getId());
-        return mapToDTO(savedBooking);
+        log.info("Booking created successfully with ID: {}", booking.getId());
+        return mapToDTO(booking);
     }
     
-    private boolean validateUser(Long userId) {
-        try {
-            ApiResponse response = userWebClient.get()
-                    .uri("/api/users/{id}/validate", userId)
-                    .retrieve()
-                    .bodyToMono(ApiResponse.class)
-                    .block();
-            
-            if (response != null && response.getData() != null) {
-                Map<String, Boolean> validationData = (Map<String, Boolean>) response.getData();
-                return validationData.get("valid");
-            }
-            return false;
-        } catch (Exception e) {
-            log.error("Failed to validate user", e);
-            return false;
-        }
+    @Transactional
+    public BookingDTO submitBooking(BookingRequest request) {
+        Booking booking = newBooking(request);
+        booking.setStatus(BookingStatus.PROCESSING);
+        
+        Booking savedBooking = bookingRepository.save(booking);
+        log.info("Accepted booking {} for asynchronous processing", savedBooking.getId());
+        return publishStatus(savedBooking);
     }
     
-    private UserDTO getUserDetails(Long userId) {
+    /**
+     * Runs the availability, reservation and notification steps for a booking accepted by
+     * {@link #submitBooking}. Every outcome is persisted, so the caller only needs to poll the
+     * booking or follow its status stream.
+     */
+    public void processBooking(Long bookingId) {
+        Booking booking = bookingRepository.findById(bookingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + bookingId));
         try {
-            ApiResponse<UserDTO> response = userWebClient.get()
-                    .uri("/api/users/{id}", userId)
-                    .retrieve()
-                    .bodyToMono(ApiResponse.class)
-                    .block();
+            Tuple3<UserDTO, FlightQuoteDTO, HotelQuoteDTO> lookups = latencyMetrics.recordStep("availability", () ->
+                    checkAvailability(booking));
+            applyPrices(booking, lookups.getT2(), lookups.getT3());
             
-            if (response != null && response.getData() != null) {
-                Map<String, Object> userData = (Map<String, Object>) response.getData();
-                UserDTO user = new UserDTO();
-                user.setId(((Number) userData.get("id")).longValue());
-                user.setName((String) userData.get("name"));
-                user.setEmail((String) userData.get("email"));
-                user.setPhone((String) userData.get("phone"));
-                user.setAddress((String) userData.get("address"));
-                return user;
-            }
-            throw new BookingException("Failed to fetch user details");
+            BookingSaga saga = latencyMetrics.recordStep("persist", () -> bookingSagaService.start(booking));
+            latencyMetrics.recordStep("reserve", () -> bookingSagaService.reserve(saga));
+            
+            latencyMetrics.recordStep("notification", () -> transactionTemplate.executeWithoutResult(status -> {
+                booking.setStatus(BookingStatus.PENDING);
+                Booking savedBooking = bookingRepository.save(booking);
+                sendNotification(lookups.getT1(), savedBooking, "Booking Created",
+                        "Your booking has been created and is pending payment.");
+                publishStatus(savedBooking);
+            }));
+            log.info("Booking {} processed successfully", bookingId);
         } catch (Exception e) {
-            log.error("Failed to get user details", e);
-            throw new BookingException("Failed to fetch user details: " + e.getMessage());
+            log.error("Asynchronous processing of booking {} failed", bookingId, e);
+            publishStatus(failAndRelease(booking));
         }
     }
     
+    /**
+     * Fails a booking and queues the release of whatever its saga still holds, together, so a
+     * failure after the reservation succeeded does not leave the seats and rooms held.
+     */
+    private Booking failAndRelease(Booking booking) {
+        return transactionTemplate.execute(status -> {
+            booking.setStatus(BookingStatus.FAILED);
+            Booking failedBooking = bookingRepository.save(booking);
+            // A no-op for sagas that never reserved or are already being undone
+            bookingSagaService.release(List.of(failedBooking.getId()));
+            return failedBooking;
+        });
+    }
+    
+    public void rejectBooking(Long bookingId) {
+        bookingRepository.findById(bookingId).ifPresent(booking -> {
+            booking.setStatus(BookingStatus.FAILED);
+            publishStatus(bookingRepository.save(booking));
+        });
+    }
+    
+    private Booking newBooking(BookingRequest request) {
+        Booking booking = new Booking();
+        booking.setUserId(request.getUserId());
+        booking.setFlightId(request.getFlightId());
+        booking.setHotelId(request.getHotelId());
+        booking.setTravelDate(request.getTravelDate());
+        booking.setPassengers(request.getPassengers());
+        booking.setRooms(request.getRooms());
+        return booking;
+    }
+    
+    /**
+     * Sets the quoted unit prices and charges the flight per passenger and the hotel per room.
+     */
+    void applyPrices(Booking booking, FlightQuoteDTO flight, HotelQuoteDTO hotel) {
+        booking.setFlightPrice(flight.getPrice());
+        booking.setHotelPrice(hotel.getPricePerNight());
+        booking.setTotalCost(flight.getPrice().multiply(BigDecimal.valueOf(booking.getPassengers()))
+                .add(hotel.getPricePerNight().multiply(BigDecimal.valueOf(booking.getRooms()))));
+    }
+    
+    private Tuple3<UserDTO, FlightQuoteDTO, HotelQuoteDTO> checkAvailability(Booking booking) {
+        return Mono.zip(
+                        userServiceClient.getActiveUser(booking.getUserId()),
+                        fetchAvailableFlight(booking.getFlightId(), booking.getPassengers()),
+                        fetchAvailableHotel(booking.getHotelId(), booking.getRooms()))
+                .timeout(lookupTimeout)
+                .onErrorMap(TimeoutException.class, e -> new BookingException(
+                        "Availability checks timed out after " + lookupTimeout.toMillis() + " ms"))
+                .block();
+    }
+    
+    private BookingDTO publishStatus(Booking booking) {
+        BookingDTO dto = mapToDTO(booking);
+        eventPublisher.publishEvent(new BookingStatusChangedEvent(dto));
+        return dto;
+    }
+    
+    private Mono<FlightQuoteDTO> fetchAvailableFlight(Long flightId, int seats) {
+        return flightQuoteLoader.load(flightId)
+                .map(quote -> {
+                    if (!Boolean.TRUE.equals(quote.getAvailable())) {
+                        throw new BookingException("Flight is not available. Flight ID: " + flightId);
+                    }
+                    if (quote.getAvailableSeats() < seats) {
+                        throw new BookingException("Not enough seats on flight " + flightId
+                                + " (requested " + seats + ", available " + quote.getAvailableSeats() + ")");
+                    }
+                    return quote;
+                });
+    }
+    
+    private Mono<HotelQuoteDTO> fetchAvailableHotel(Long hotelId, int rooms) {
+        return hotelQuoteLoader.load(hotelId)
+                .map(quote -> {
+                    if (!Boolean.TRUE.equals(quote.getAvailable())) {
+                        throw new BookingException("Hotel is not available. Hotel ID: " + hotelId);
+                    }
+                    if (quote.getAvailableRooms() < rooms) {
+                        throw new BookingException("Not enough rooms at hotel " + hotelId
+                                + " (requested " + rooms + ", available " + quote.getAvailableRooms() + ")");
+                    }
+                    return quote;
+                });
+    }
+    
     private void sendNotification(UserDTO user, Booking booking, String subject, String message) {
-        try {
-            NotificationRequest notificationRequest = new NotificationRequest();
-            notificationRequest.setUserId(user.getId());
-            notificationRequest.setBookingId(booking.getId());
-            notificationRequest.setRecipient(user.getEmail());
-            notificationRequest.setSubject(subject);
-            notificationRequest.setMessage(message);
-            notificationRequest.setType("EMAIL");
-            
-            notificationWebClient.post()
-                    .uri("/api/notifications/send")
-                    .bodyValue(notificationRequest)
-                    .retrieve()
-                    .bodyToMono(ApiResponse.class)
-                    .block();
-            
-            log.info("Notification sent for booking: {}", booking.getId());
-        } catch (Exception e) {
-            log.error("Failed to send notification", e);
-            // Don't throw exception, just log the error
-        }
+        bookingNotifier.queue(user, booking, subject, message);
+    }
+    
+    /**
+     * Queues a notification whose recipient is looked up when it is dispatched, so callers
+     * inside a transaction never wait on user-service.
+     */
+    private void sendNotification(Booking booking, String subject, String message) {
+        bookingNotifier.queue(booking, subject, message);
     }
     
     @Transactional
@@ -185,17 +264,105 @@ public class BookingService {
         }
         
         Booking updatedBooking = bookingRepository.save(booking);
+        if (isUndone(updatedBooking)) {
+            bookingSagaService.release(List.of(bookingId));
+        } else if (updatedBooking.getStatus() == BookingStatus.CONFIRMED
+                && !bookingSagaService.confirm(List.of(bookingId)).isEmpty()) {
+            failPaidBookings(List.of(bookingId));
+            return mapToDTO(updatedBooking);
+        }
+        BookingDTO result = publishStatus(updatedBooking);
         
         // Send notification about status change
-        try {
-            UserDTO user = getUserDetails(booking.getUserId());
-            String message = "Your booking status has been updated to: " + request.getStatus();
-            sendNotification(user, booking, "Booking Status Updated", message);
-        } catch (Exception e) {
-            log.error("Failed to send status update notification", e);
+        String message = "Your booking status has been updated to: " + request.getStatus();
+        sendNotification(booking, "Booking Status Updated", message);
+        
+        return result;
+    }
+    
+    @Transactional
+    public Map<String, List<Long>> updateBookingStatuses(List<BookingStatusUpdateRequest> updates) {
+        List<Long> failed = new ArrayList<>();
+        Map<Long, BookingStatusUpdateRequest> latestByBooking = new LinkedHashMap<>();
+        for (BookingStatusUpdateRequest update : updates) {
+            if (update.getBookingId() == null) {
+                continue;
+            }
+            if (!isValidStatus(update.getStatus())) {
+                failed.add(update.getBookingId());
+                continue;
+            }
+            latestByBooking.put(update.getBookingId(), update);
+        }
+        
+        List<Booking> bookings = bookingRepository.findAllById(latestByBooking.keySet());
+        List<Long> updated = new ArrayList<>();
+        for (Booking booking : bookings) {
+            BookingStatusUpdateRequest update = latestByBooking.get(booking.getId());
+            booking.setStatus(BookingStatus.valueOf(update.getStatus()));
+            if (update.getPaymentId() != null) {
+                booking.setPaymentId(update.getPaymentId());
+            }
+            updated.add(booking.getId());
+        }
+        Set<Long> updatedIds = new HashSet<>(updated);
+        latestByBooking.keySet().stream()
+                .filter(id -> !updatedIds.contains(id))
+                .forEach(failed::add);
+        
+        bookingRepository.saveAll(bookings);
+        bookingSagaService.release(bookings.stream()
+                .filter(this::isUndone)
+                .map(Booking::getId)
+                .collect(Collectors.toList()));
+        Set<Long> lost = new HashSet<>(bookingSagaService.confirm(bookings.stream()
+                .filter(booking -> booking.getStatus() == BookingStatus.CONFIRMED)
+                .map(Booking::getId)
+                .collect(Collectors.toList())));
+        failPaidBookings(lost);
+        List<Booking> changed = bookings.stream()
+                .filter(booking -> !lost.contains(booking.getId()))
+                .collect(Collectors.toList());
+        changed.forEach(this::publishStatus);
+        
+        for (Booking booking : changed) {
+            String message = "Your booking status has been updated to: " + booking.getStatus();
+            sendNotification(booking, "Booking Status Updated", message);
         }
         
-        return mapToDTO(updatedBooking);
+        log.info("Batch status update: {} updated, {} failed", updated.size(), failed.size());
+        return Map.of("updated", updated, "failed", failed);
+    }
+    
+    /**
+     * Fails paid bookings whose seats or rooms could not be kept, queues the release of
+     * whatever they still hold and tells the users their payment will be refunded.
+     */
+    @Transactional
+    public void failPaidBookings(Collection<Long> bookingIds) {
+        if (bookingIds.isEmpty()) {
+            return;
+        }
+        List<Booking> bookings = bookingRepository.findAllById(bookingIds);
+        bookings.forEach(booking -> booking.setStatus(BookingStatus.FAILED));
+        bookingRepository.saveAll(bookings).forEach(this::publishStatus);
+        bookingSagaService.release(bookingIds);
+        
+        for (Booking booking : bookings) {
+            log.warn("Booking {} was paid but its seats or rooms are no longer held, failing it", booking.getId());
+            sendNotification(booking, "Booking Failed",
+                    "Your booking could not be completed because the reserved seats or rooms are no longer "
+                            + "available. Your payment will be refunded.");
+        }
+    }
+    
+    private boolean isUndone(Booking booking) {
+        return booking.getStatus() == BookingStatus.CANCELLED || booking.getStatus() == BookingStatus.FAILED;
+    }
+    
+    private boolean isValidStatus(String status) {
+        return status != null && Arrays.stream(BookingStatus.values())
+                .anyMatch(value -> value.name().equals(status));
     }
     
     public BookingDTO getBookingById(Long id) {
@@ -204,16 +371,12 @@ public class BookingService {
         return mapToDTO(booking);
     }
     
-    public List<BookingDTO> getAllBookings() {
-        return bookingRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<BookingDTO> getAllBookings(Long after, Integer limit) {
+        return toPage(bookingRepository.findByIdGreaterThanOrderByIdAsc(cursor(after), keysetPage(limit)), limit);
     }
     
-    public List<BookingDTO> getBookingsByUserId(Long userId) {
-        return bookingRepository.findByUserId(userId).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<BookingDTO> getBookingsByUserId(Long userId, Long after, Integer limit) {
+        return toPage(bookingRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, cursor(after), keysetPage(limit)), limit);
     }
     
     @Transactional
@@ -222,24 +385,45 @@ public class BookingService {
                 .orElseThrow(() -> new ResourceNotFoundException("Booking not found with id: " + id));
         
         booking.setStatus(BookingStatus.CANCELLED);
-        bookingRepository.save(booking);
+        publishStatus(bookingRepository.save(booking));
+        bookingSagaService.release(List.of(id));
         
-        try {
-            UserDTO user = getUserDetails(booking.getUserId());
-            sendNotification(user, booking, "Booking Cancelled", 
-                    "Your booking has been cancelled.");
-        } catch (Exception e) {
-            log.error("Failed to send cancellation notification", e);
+        sendNotification(booking, "Booking Cancelled", "Your booking has been cancelled.");
+    }
+    
+    private long cursor(Long after) {
+        return after != null ? after : 0L;
+    }
+    
+    private Pageable keysetPage(Integer limit) {
+        // One extra row tells us whether another page follows
+        return PageRequest.of(0, pageSize(limit) + 1);
+    }
+    
+    private CursorPage<BookingDTO> toPage(List<Booking> rows, Integer limit) {
+        int pageSize = pageSize(limit);
+        boolean hasMore = rows.size() > pageSize;
+        List<Booking> page = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? page.get(page.size() - 1).getId() : null;
+        return new CursorPage<>(page.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
         }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
     
-    private BookingDTO mapToDTO(Booking booking) {
+    BookingDTO mapToDTO(Booking booking) {
         return new BookingDTO(
                 booking.getId(),
                 booking.getUserId(),
                 booking.getFlightId(),
                 booking.getHotelId(),
                 booking.getTravelDate(),
+                booking.getPassengers(),
+                booking.getRooms(),
                 booking.getFlightPrice(),
                 booking.getHotelPrice(),
                 booking.getTotalCost(),
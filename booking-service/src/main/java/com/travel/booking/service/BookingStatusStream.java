@@ -0,0 +1,79 @@
+package com.travel.booking.service;
+
+import com.travel.booking.dto.BookingDTO;
+import com.travel.booking.entity.Booking.BookingStatus;
+import com.travel.booking.event.BookingStatusChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Pushes committed booking status changes to Server-Sent Events subscribers. A stream ends
+ * once the booking reaches a terminal status. Subscribers are held in memory, so a client
+ * only sees changes made by the instance it is connected to.
+ */
+@Component
+@Slf4j
+public class BookingStatusStream {
+    
+    private static final Set<BookingStatus> TERMINAL_STATUSES =
+            EnumSet.of(BookingStatus.CONFIRMED, BookingStatus.FAILED, BookingStatus.CANCELLED);
+    
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+    
+    @Value("${booking.events.timeout:5m}")
+    private Duration timeout;
+    
+    public SseEmitter subscribe(Long bookingId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        subscribers.computeIfAbsent(bookingId, id -> new CopyOnWriteArrayList<>()).add(emitter);
+        emitter.onCompletion(() -> remove(bookingId, emitter));
+        emitter.onTimeout(() -> remove(bookingId, emitter));
+        emitter.onError(e -> remove(bookingId, emitter));
+        return emitter;
+    }
+    
+    public void send(SseEmitter emitter, BookingDTO booking) {
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("status")
+                    .data(booking));
+            if (TERMINAL_STATUSES.contains(booking.getStatus())) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away or the emitter already completed
+            emitter.completeWithError(e);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStatusChanged(BookingStatusChangedEvent event) {
+        BookingDTO booking = event.getBooking();
+        List<SseEmitter> emitters = subscribers.get(booking.getId());
+        if (emitters == null) {
+            return;
+        }
+        log.debug("Streaming status {} of booking {} to {} subscribers",
+                booking.getStatus(), booking.getId(), emitters.size());
+        emitters.forEach(emitter -> send(emitter, booking));
+    }
+    
+    private void remove(Long bookingId, SseEmitter emitter) {
+        subscribers.computeIfPresent(bookingId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+}
@@ -0,0 +1,46 @@
+package com.travel.booking.service;
+
+import com.travel.booking.dto.BookingDTO;
+import com.travel.booking.dto.BookingRequest;
+import com.travel.booking.exception.ServiceBusyException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Accepts bookings without holding the client connection: the booking is stored as
+ * PROCESSING and the remaining steps run on the bounded {@code bookingExecutor}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingSubmissionService {
+    
+    private final BookingService bookingService;
+    private final BookingStatusStream bookingStatusStream;
+    private final ThreadPoolTaskExecutor bookingExecutor;
+    
+    public BookingDTO submit(BookingRequest request) {
+        BookingDTO booking = bookingService.submitBooking(request);
+        try {
+            bookingExecutor.execute(() -> bookingService.processBooking(booking.getId()));
+        } catch (TaskRejectedException e) {
+            log.warn("Rejected booking {}: worker queue is full", booking.getId());
+            bookingService.rejectBooking(booking.getId());
+            throw new ServiceBusyException("Too many bookings in progress, please retry later");
+        }
+        return booking;
+    }
+    
+    public SseEmitter streamStatus(Long bookingId) {
+        // Fails with 404 before anything is registered
+        bookingService.getBookingById(bookingId);
+        SseEmitter emitter = bookingStatusStream.subscribe(bookingId);
+        // Read again after subscribing so a change committed in between is not missed
+        bookingStatusStream.send(emitter, bookingService.getBookingById(bookingId));
+        return emitter;
+    }
+}
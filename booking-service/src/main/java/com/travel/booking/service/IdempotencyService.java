@@ -0,0 +1,258 @@
+package com.travel.booking.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.travel.booking.dto.ApiResponse;
+import com.travel.booking.entity.IdempotencyRecord;
+import com.travel.booking.entity.IdempotencyRecord.RecordStatus;
+import com.travel.booking.exception.BookingException;
+import com.travel.booking.exception.IdempotencyConflictException;
+import com.travel.booking.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Makes creation endpoints safe to retry. The first request carrying an {@code Idempotency-Key}
+ * runs the operation and its response is stored; replays of the same request get the stored
+ * response back, and duplicates that arrive while it is still running wait for its outcome.
+ * Failed operations are not stored, so the client can retry them with the same key.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IdempotencyService {
+    
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    
+    private final IdempotencyRecordRepository recordRepository;
+    private final Cache<String, StoredResponse> idempotencyCache;
+    private final ObjectMapper objectMapper;
+    private final Map<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+    
+    @Value("${idempotency.ttl:24h}")
+    private Duration ttl;
+    
+    @Value("${idempotency.lock-timeout:1m}")
+    private Duration lockTimeout;
+    
+    @Value("${idempotency.wait-timeout:30s}")
+    private Duration waitTimeout;
+    
+    public <T> ResponseEntity<ApiResponse<T>> execute(String key, String operation, Object request, Class<T> dataType,
+                                                      Supplier<ResponseEntity<ApiResponse<T>>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new BookingException(IDEMPOTENCY_KEY_HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        
+        String fingerprint = fingerprint(operation, request);
+        StoredResponse stored = idempotencyCache.getIfPresent(key);
+        if (stored != null) {
+            return replay(stored, fingerprint, dataType);
+        }
+        
+        // Concurrent duplicates on this instance attach to the execution that got here first
+        CompletableFuture<StoredResponse> execution = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            return replay(await(running), fingerprint, dataType);
+        }
+        
+        try {
+            stored = claim(key, fingerprint);
+            if (stored != null) {
+                idempotencyCache.put(key, stored);
+                execution.complete(stored);
+                return replay(stored, fingerprint, dataType);
+            }
+            
+            ResponseEntity<ApiResponse<T>> response;
+            try {
+                response = action.get();
+            } catch (RuntimeException e) {
+                release(key);
+                throw e;
+            }
+            stored = complete(key, fingerprint, response);
+            idempotencyCache.put(key, stored);
+            execution.complete(stored);
+            return response;
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int purged = recordRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+    
+    /**
+     * Reserves the key for this instance. Returns the stored response if the key already
+     * completed, or {@code null} once the caller owns it and should run the operation.
+     */
+    private StoredResponse claim(String key, String fingerprint) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = recordRepository.findById(key).orElse(null);
+        if (record != null && record.getExpiresAt().isAfter(now)) {
+            if (record.getStatus() == RecordStatus.COMPLETED) {
+                return toStoredResponse(record);
+            }
+            if (!record.getFingerprint().equals(fingerprint)) {
+                throw new IdempotencyConflictException(IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+            }
+            throw new IdempotencyConflictException("A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+        }
+        
+        // Missing, or expired and safe to take over (e.g. left behind by a crashed instance)
+        if (record == null) {
+            record = new IdempotencyRecord();
+            record.setKey(key);
+        }
+        record.setFingerprint(fingerprint);
+        record.setStatus(RecordStatus.IN_PROGRESS);
+        record.setResponseStatus(null);
+        record.setLocation(null);
+        record.setResponseBody(null);
+        record.setExpiresAt(now.plus(lockTimeout));
+        try {
+            recordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException | OptimisticLockingFailureException e) {
+            throw new IdempotencyConflictException("A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+        }
+        return null;
+    }
+    
+    private StoredResponse complete(String key, String fingerprint, ResponseEntity<?> response) {
+        URI location = response.getHeaders().getLocation();
+        StoredResponse stored = new StoredResponse(fingerprint, response.getStatusCode().value(),
+                location != null ? location.toString() : null, writeBody(response.getBody()));
+        try {
+            IdempotencyRecord record = recordRepository.findById(key).orElseGet(IdempotencyRecord::new);
+            record.setKey(key);
+            record.setFingerprint(fingerprint);
+            record.setStatus(RecordStatus.COMPLETED);
+            record.setResponseStatus(stored.getStatus());
+            record.setLocation(stored.getLocation());
+            record.setResponseBody(stored.getBody());
+            record.setExpiresAt(LocalDateTime.now().plus(ttl));
+            recordRepository.save(record);
+        } catch (RuntimeException e) {
+            // The operation itself succeeded; replays are still served from memory on this instance
+            log.error("Failed to persist response for idempotency key {}", key, e);
+        }
+        return stored;
+    }
+    
+    private void release(String key) {
+        try {
+            recordRepository.deleteById(key);
+        } catch (RuntimeException e) {
+            log.warn("Failed to release idempotency key {}, it expires after {}", key, lockTimeout);
+        }
+    }
+    
+    private StoredResponse await(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("A request with this " + IDEMPOTENCY_KEY_HEADER + " is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for the original request");
+        }
+    }
+    
+    private <T> ResponseEntity<ApiResponse<T>> replay(StoredResponse stored, String fingerprint, Class<T> dataType) {
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            throw new IdempotencyConflictException(IDEMPOTENCY_KEY_HEADER + " was already used for a different request");
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(stored.getStatus())
+                .header(REPLAYED_HEADER, "true");
+        if (stored.getLocation() != null) {
+            response.location(URI.create(stored.getLocation()));
+        }
+        return response.body(readBody(stored.getBody(), dataType));
+    }
+    
+    private StoredResponse toStoredResponse(IdempotencyRecord record) {
+        return new StoredResponse(record.getFingerprint(), record.getResponseStatus(),
+                record.getLocation(), record.getResponseBody());
+    }
+    
+    private String fingerprint(String operation, Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(operation.getBytes(StandardCharsets.UTF_8));
+            digest.update(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+    
+    private String writeBody(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+    }
+    
+    private <T> ApiResponse<T> readBody(String body, Class<T> dataType) {
+        JavaType type = objectMapper.getTypeFactory().constructParametricType(ApiResponse.class, dataType);
+        try {
+            return objectMapper.readValue(body, type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to read stored response", e);
+        }
+    }
+    
+    @Getter
+    @RequiredArgsConstructor
+    public static class StoredResponse {
+        private final String fingerprint;
+        private final int status;
+        private final String location;
+        private final String body;
+    }
+}
@@ -0,0 +1,60 @@
+package com.travel.booking.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency timers for the steps of a booking and for every call made to another service.
+ * All timers publish a percentile histogram and p50/p95/p99, and are served together by
+ * the {@code latency} actuator endpoint.
+ */
+@Component
+@RequiredArgsConstructor
+public class LatencyMetrics {
+    
+    public static final String STEP_TIMER = "booking.step";
+    public static final String DOWNSTREAM_TIMER = "downstream.requests";
+    
+    private final MeterRegistry meterRegistry;
+    
+    public <T> T recordStep(String step, Supplier<T> action) {
+        long start = System.nanoTime();
+        String outcome = "failure";
+        try {
+            T result = action.get();
+            outcome = "success";
+            return result;
+        } finally {
+            timer(STEP_TIMER, Tags.of("step", step, "outcome", outcome)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    public void recordStep(String step, Runnable action) {
+        recordStep(step, () -> {
+            action.run();
+            return null;
+        });
+    }
+    
+    public void recordDownstream(String service, String operation, String outcome, long durationNanos) {
+        timer(DOWNSTREAM_TIMER, Tags.of("service", service, "operation", operation, "outcome", outcome))
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+    
+    private Timer timer(String name, Tags tags) {
+        return Timer.builder(name)
+                .tags(tags)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+}
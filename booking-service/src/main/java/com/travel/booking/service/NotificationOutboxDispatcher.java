@@ -0,0 +1,213 @@
+package com.travel.booking.service;
+
+import com.travel.booking.client.UserServiceClient;
+import com.travel.booking.dto.ApiResponse;
+import com.travel.booking.dto.NotificationBatchRequest;
+import com.travel.booking.dto.NotificationRequest;
+import com.travel.booking.dto.UserDTO;
+import com.travel.booking.entity.NotificationOutbox;
+import com.travel.booking.entity.NotificationOutbox.OutboxStatus;
+import com.travel.booking.exception.BookingException;
+import com.travel.booking.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers notifications queued in the outbox by {@link BookingService}. Entries are
+ * sent in batches outside of any booking transaction and retried with exponential
+ * backoff until they are delivered or run out of attempts. Entries queued by user id only
+ * get their recipient looked up here, so no booking transaction waits on user-service.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxDispatcher {
+    
+    private final NotificationOutboxRepository outboxRepository;
+    private final UserServiceClient userServiceClient;
+    
+    @Qualifier("notificationWebClient")
+    private final WebClient notificationWebClient;
+    
+    @Value("${notification.outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${notification.outbox.max-attempts:10}")
+    private int maxAttempts;
+    
+    @Value("${notification.outbox.initial-backoff:2s}")
+    private Duration initialBackoff;
+    
+    @Value("${notification.outbox.max-backoff:5m}")
+    private Duration maxBackoff;
+    
+    @Value("${notification.outbox.send-timeout:10s}")
+    private Duration sendTimeout;
+    
+    @Scheduled(fixedDelayString = "${notification.outbox.poll-interval-ms:1000}")
+    public void dispatchPending() {
+        List<NotificationOutbox> batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                OutboxStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return;
+        }
+        
+        List<NotificationOutbox> ready = resolveRecipients(batch);
+        if (!ready.isEmpty()) {
+            send(ready);
+        }
+        
+        outboxRepository.saveAll(batch);
+    }
+    
+    private void send(List<NotificationOutbox> batch) {
+        try {
+            sendBatch(batch);
+            batch.forEach(this::markSent);
+            log.info("Dispatched {} queued notifications", batch.size());
+        } catch (WebClientResponseException e) {
+            if (e.getStatusCode().is4xxClientError() && batch.size() > 1) {
+                // One bad entry must not block the rest of the batch, so isolate it
+                log.warn("Notification batch rejected ({}), retrying entries individually", e.getStatusCode());
+                batch.forEach(this::dispatchSingle);
+            } else {
+                batch.forEach(entry -> markFailedAttempt(entry, e));
+            }
+        } catch (Exception e) {
+            log.error("Failed to dispatch notification batch", e);
+            batch.forEach(entry -> markFailedAttempt(entry, e));
+        }
+    }
+    
+    /**
+     * Fills in the recipients of entries queued without one, looking each user up once.
+     * Entries whose user cannot be loaded count as a failed attempt and sit out this round.
+     */
+    private List<NotificationOutbox> resolveRecipients(List<NotificationOutbox> batch) {
+        Set<Long> userIds = batch.stream()
+                .filter(entry -> entry.getRecipient() == null)
+                .map(NotificationOutbox::getUserId)
+                .collect(Collectors.toSet());
+        if (userIds.isEmpty()) {
+            return batch;
+        }
+        
+        Map<Long, String> recipients = new ConcurrentHashMap<>();
+        Map<Long, Exception> failures = new ConcurrentHashMap<>();
+        Flux.fromIterable(userIds)
+                .flatMap(userId -> userServiceClient.getUserDetails(userId)
+                        .mapNotNull(UserDTO::getEmail)
+                        .switchIfEmpty(Mono.error(() -> new BookingException("User " + userId + " has no email address")))
+                        .timeout(sendTimeout)
+                        .doOnNext(email -> recipients.put(userId, email))
+                        .onErrorResume(Exception.class, e -> {
+                            failures.put(userId, e);
+                            return Mono.empty();
+                        }))
+                .blockLast();
+        
+        List<NotificationOutbox> ready = new ArrayList<>(batch.size());
+        for (NotificationOutbox entry : batch) {
+            if (entry.getRecipient() == null) {
+                String recipient = recipients.get(entry.getUserId());
+                if (recipient == null) {
+                    markFailedAttempt(entry, failures.get(entry.getUserId()));
+                    continue;
+                }
+                entry.setRecipient(recipient);
+            }
+            ready.add(entry);
+        }
+        return ready;
+    }
+    
+    private void sendBatch(List<NotificationOutbox> batch) {
+        NotificationBatchRequest batchRequest = new NotificationBatchRequest(batch.stream()
+                .map(this::toRequest)
+                .collect(Collectors.toList()));
+        
+        notificationWebClient.post()
+                .uri("/api/notifications/send/batch")
+                .bodyValue(batchRequest)
+                .retrieve()
+                .bodyToMono(ApiResponse.class)
+                .timeout(sendTimeout)
+                .block();
+    }
+    
+    private void dispatchSingle(NotificationOutbox entry) {
+        try {
+            notificationWebClient.post()
+                    .uri("/api/notifications/send")
+                    .bodyValue(toRequest(entry))
+                    .retrieve()
+                    .bodyToMono(ApiResponse.class)
+                    .timeout(sendTimeout)
+                    .block();
+            markSent(entry);
+        } catch (Exception e) {
+            markFailedAttempt(entry, e);
+        }
+    }
+    
+    private void markSent(NotificationOutbox entry) {
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setStatus(OutboxStatus.SENT);
+        entry.setSentAt(LocalDateTime.now());
+        entry.setLastError(null);
+    }
+    
+    private void markFailedAttempt(NotificationOutbox entry, Exception e) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(truncate(e.getMessage()));
+        
+        if (attempts >= maxAttempts) {
+            entry.setStatus(OutboxStatus.FAILED);
+            log.error("Giving up on notification {} for booking {} after {} attempts",
+                    entry.getId(), entry.getBookingId(), attempts);
+            return;
+        }
+        
+        long backoffMillis = Math.min(
+                initialBackoff.toMillis() << Math.min(attempts - 1, 20),
+                maxBackoff.toMillis());
+        entry.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis)));
+    }
+    
+    private NotificationRequest toRequest(NotificationOutbox entry) {
+        return new NotificationRequest(
+                entry.getUserId(),
+                entry.getBookingId(),
+                entry.getRecipient(),
+                entry.getSubject(),
+                entry.getMessage(),
+                entry.getType()
+        );
+    }
+    
+    private String truncate(String message) {
+        if (message == null || message.length() <= 1000) {
+            return message;
+        }
+        return message.substring(0, 1000);
+    }
+}
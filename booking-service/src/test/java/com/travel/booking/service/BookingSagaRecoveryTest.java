@@ -0,0 +1,239 @@
+package com.travel.booking.service;
+
+import com.travel.booking.client.FlightServiceClient;
+import com.travel.booking.client.HotelServiceClient;
+import com.travel.booking.dto.ApiResponse;
+import com.travel.booking.dto.HoldBatchRequest;
+import com.travel.booking.entity.Booking;
+import com.travel.booking.entity.BookingSaga;
+import com.travel.booking.entity.BookingSaga.SagaStatus;
+import com.travel.booking.repository.BookingSagaRepository;
+import feign.FeignException;
+import feign.Request;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingSagaRecoveryTest {
+    
+    private static final Duration INITIAL_BACKOFF = Duration.ofSeconds(2);
+    
+    private final List<BookingSaga> sagas = new ArrayList<>();
+    
+    private BookingSagaRepository sagaRepository;
+    private BookingService bookingService;
+    private FlightServiceClient flightServiceClient;
+    private HotelServiceClient hotelServiceClient;
+    private BookingSagaService sagaService;
+    private BookingSagaRecovery recovery;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        sagaRepository = mock(BookingSagaRepository.class);
+        bookingService = mock(BookingService.class);
+        flightServiceClient = mock(FlightServiceClient.class);
+        hotelServiceClient = mock(HotelServiceClient.class);
+        sagaService = new BookingSagaService(sagaRepository, flightServiceClient, hotelServiceClient);
+        recovery = new BookingSagaRecovery(sagaRepository, bookingService, flightServiceClient, hotelServiceClient);
+        ReflectionTestUtils.setField(recovery, "batchSize", 100);
+        ReflectionTestUtils.setField(recovery, "maxAttempts", 3);
+        ReflectionTestUtils.setField(recovery, "initialBackoff", INITIAL_BACKOFF);
+        ReflectionTestUtils.setField(recovery, "maxBackoff", Duration.ofMinutes(5));
+        ReflectionTestUtils.setField(recovery, "staleAfter", Duration.ofMinutes(2));
+        
+        when(sagaRepository.save(any(BookingSaga.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+        when(sagaRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<BookingSaga> saved = invocation.getArgument(0);
+            saved.forEach(this::store);
+            return saved;
+        });
+        when(sagaRepository.findByBookingIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> bookingIds = invocation.getArgument(0);
+            return sagas.stream().filter(saga -> bookingIds.contains(saga.getBookingId())).collect(Collectors.toList());
+        });
+        when(sagaRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    SagaStatus status = invocation.getArgument(0);
+                    LocalDateTime now = invocation.getArgument(1);
+                    return sagas.stream()
+                            .filter(saga -> saga.getStatus() == status && !saga.getNextAttemptAt().isAfter(now))
+                            .collect(Collectors.toList());
+                });
+        when(sagaRepository.findByStatusAndUpdatedAtBeforeOrderByIdAsc(any(), any(), any()))
+                .thenAnswer(invocation -> {
+                    SagaStatus status = invocation.getArgument(0);
+                    LocalDateTime cutoff = invocation.getArgument(1);
+                    return sagas.stream()
+                            .filter(saga -> saga.getStatus() == status && saga.getUpdatedAt().isBefore(cutoff))
+                            .collect(Collectors.toList());
+                });
+    }
+    
+    @Test
+    void failsAStaleReservationAndReleasesWhatItHeld() {
+        // Left behind by an instance that crashed between the seat and the room hold
+        BookingSaga stale = saga(1L, SagaStatus.RESERVING, "seat-1", null);
+        stale.setUpdatedAt(LocalDateTime.now().minusMinutes(5));
+        BookingSaga fresh = saga(2L, SagaStatus.RESERVING, "seat-2", null);
+        
+        recovery.recover();
+        
+        verify(bookingService).rejectBooking(1L);
+        verify(bookingService, never()).rejectBooking(2L);
+        verify(flightServiceClient).releaseSeatHolds(new HoldBatchRequest(List.of("seat-1")));
+        verify(hotelServiceClient, never()).releaseRoomHolds(any());
+        assertEquals(SagaStatus.COMPENSATED, stale.getStatus());
+        assertFalse(stale.getSeatsHeld());
+        assertEquals(SagaStatus.RESERVING, fresh.getStatus());
+    }
+    
+    @Test
+    void releasesTheHoldsOfACancelledBooking() {
+        BookingSaga saga = saga(1L, SagaStatus.RESERVED, "seat-1", "room-1");
+        
+        sagaService.release(List.of(1L));
+        recovery.recover();
+        
+        verify(flightServiceClient).releaseSeatHolds(new HoldBatchRequest(List.of("seat-1")));
+        verify(hotelServiceClient).releaseRoomHolds(new HoldBatchRequest(List.of("room-1")));
+        assertEquals(SagaStatus.COMPENSATED, saga.getStatus());
+        assertFalse(saga.getSeatsHeld());
+        assertFalse(saga.getRoomsHeld());
+    }
+    
+    @Test
+    void confirmsAWholeBatchWithOneCallPerService() {
+        BookingSaga first = saga(1L, SagaStatus.RESERVED, "seat-1", "room-1");
+        BookingSaga second = saga(2L, SagaStatus.RESERVED, "seat-2", "room-2");
+        
+        sagaService.confirm(List.of(1L, 2L));
+        recovery.recover();
+        
+        verify(flightServiceClient).confirmSeatHolds(new HoldBatchRequest(List.of("seat-1", "seat-2")));
+        verify(hotelServiceClient).confirmRoomHolds(new HoldBatchRequest(List.of("room-1", "room-2")));
+        assertEquals(SagaStatus.CONFIRMED, first.getStatus());
+        assertEquals(SagaStatus.CONFIRMED, second.getStatus());
+    }
+    
+    @Test
+    void retriesARejectedBatchOneHoldAtATime() {
+        BookingSaga first = saga(1L, SagaStatus.CONFIRMING, "seat-1", "room-1");
+        BookingSaga second = saga(2L, SagaStatus.CONFIRMING, "seat-2", "room-2");
+        when(hotelServiceClient.confirmRoomHolds(any())).thenAnswer(invocation -> {
+            HoldBatchRequest request = invocation.getArgument(0);
+            if (request.getHoldIds().size() > 1) {
+                throw badRequest();
+            }
+            if (request.getHoldIds().contains("room-2")) {
+                throw new IllegalStateException("Hotel service timed out");
+            }
+            return ApiResponse.success("confirmed", List.of());
+        });
+        
+        recovery.recover();
+        
+        verify(hotelServiceClient).confirmRoomHolds(new HoldBatchRequest(List.of("room-1")));
+        verify(hotelServiceClient).confirmRoomHolds(new HoldBatchRequest(List.of("room-2")));
+        assertEquals(SagaStatus.CONFIRMED, first.getStatus());
+        assertEquals(SagaStatus.CONFIRMING, second.getStatus());
+        assertEquals("Hotel service timed out", second.getLastError());
+    }
+    
+    @Test
+    void backsOffAfterAFailedReleaseAndGivesUpAfterTheLastAttempt() {
+        BookingSaga saga = saga(1L, SagaStatus.COMPENSATING, "seat-1", null);
+        when(flightServiceClient.releaseSeatHolds(any())).thenThrow(new IllegalStateException("Flight service is down"));
+        
+        LocalDateTime before = LocalDateTime.now();
+        recovery.recover();
+        
+        assertEquals(SagaStatus.COMPENSATING, saga.getStatus());
+        assertEquals(1, saga.getAttempts());
+        assertTrue(saga.getSeatsHeld());
+        assertFalse(saga.getNextAttemptAt().isBefore(before.plus(INITIAL_BACKOFF)));
+        
+        // Not due yet
+        recovery.recover();
+        verify(flightServiceClient, times(1)).releaseSeatHolds(any());
+        
+        // The second backoff doubles the first
+        saga.setNextAttemptAt(LocalDateTime.now());
+        before = LocalDateTime.now();
+        recovery.recover();
+        assertEquals(2, saga.getAttempts());
+        assertFalse(saga.getNextAttemptAt().isBefore(before.plus(INITIAL_BACKOFF.multipliedBy(2))));
+        
+        saga.setNextAttemptAt(LocalDateTime.now());
+        recovery.recover();
+        assertEquals(SagaStatus.FAILED, saga.getStatus());
+        assertEquals(3, saga.getAttempts());
+    }
+    
+    @Test
+    void failsAPaidBookingWhoseHoldsCannotBeConfirmed() {
+        ReflectionTestUtils.setField(recovery, "maxAttempts", 1);
+        BookingSaga saga = saga(1L, SagaStatus.CONFIRMING, "seat-1", "room-1");
+        when(flightServiceClient.confirmSeatHolds(any())).thenThrow(new IllegalStateException("Hold seat-1 expired"));
+        
+        recovery.recover();
+        
+        verify(bookingService).failPaidBookings(List.of(1L));
+        // Failing the booking is what queues the release
+        assertEquals(SagaStatus.CONFIRMING, saga.getStatus());
+    }
+    
+    // By identity, as sagas are compared by value
+    private BookingSaga store(BookingSaga saga) {
+        if (sagas.stream().noneMatch(stored -> stored == saga)) {
+            saga.setId((long) sagas.size() + 1);
+            sagas.add(saga);
+        }
+        return saga;
+    }
+    
+    private BookingSaga saga(Long bookingId, SagaStatus status, String seatHoldId, String roomHoldId) {
+        Booking booking = new Booking();
+        booking.setId(bookingId);
+        booking.setFlightId(10L);
+        booking.setHotelId(20L);
+        booking.setPassengers(2);
+        booking.setRooms(1);
+        BookingSaga saga = sagaService.start(booking);
+        saga.setStatus(status);
+        saga.setSeatHoldId(seatHoldId);
+        saga.setSeatsHeld(seatHoldId != null);
+        saga.setRoomHoldId(roomHoldId);
+        saga.setRoomsHeld(roomHoldId != null);
+        saga.setNextAttemptAt(LocalDateTime.now());
+        saga.setUpdatedAt(LocalDateTime.now());
+        return saga;
+    }
+    
+    private static FeignException badRequest() {
+        Request request = Request.create(Request.HttpMethod.POST, "/api/hotels/holds/confirm",
+                Map.of(), null, StandardCharsets.UTF_8, null);
+        return new FeignException.BadRequest("One of the holds is no longer active", request, null, Map.of());
+    }
+}
@@ -0,0 +1,184 @@
+package com.travel.booking.service;
+
+import com.travel.booking.client.FlightServiceClient;
+import com.travel.booking.client.HotelServiceClient;
+import com.travel.booking.dto.ApiResponse;
+import com.travel.booking.dto.RoomHoldDTO;
+import com.travel.booking.dto.SeatHoldDTO;
+import com.travel.booking.entity.Booking;
+import com.travel.booking.entity.BookingSaga;
+import com.travel.booking.entity.BookingSaga.SagaStatus;
+import com.travel.booking.repository.BookingSagaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BookingSagaServiceTest {
+    
+    private final List<BookingSaga> sagas = new ArrayList<>();
+    
+    private BookingSagaRepository sagaRepository;
+    private FlightServiceClient flightServiceClient;
+    private HotelServiceClient hotelServiceClient;
+    private BookingSagaService sagaService;
+    
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        sagaRepository = mock(BookingSagaRepository.class);
+        flightServiceClient = mock(FlightServiceClient.class);
+        hotelServiceClient = mock(HotelServiceClient.class);
+        sagaService = new BookingSagaService(sagaRepository, flightServiceClient, hotelServiceClient);
+        
+        when(sagaRepository.save(any(BookingSaga.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+        when(sagaRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<BookingSaga> saved = invocation.getArgument(0);
+            saved.forEach(this::store);
+            return saved;
+        });
+        when(sagaRepository.findByBookingIdIn(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> bookingIds = invocation.getArgument(0);
+            return sagas.stream().filter(saga -> bookingIds.contains(saga.getBookingId())).collect(Collectors.toList());
+        });
+    }
+    
+    @Test
+    void reserveHoldsSeatsThenRoomsAndMarksTheSagaReserved() {
+        holdSeats("seat-1");
+        holdRooms("room-1");
+        BookingSaga saga = sagaService.start(booking(1L));
+        
+        sagaService.reserve(saga);
+        
+        assertEquals(SagaStatus.RESERVED, saga.getStatus());
+        assertEquals("seat-1", saga.getSeatHoldId());
+        assertEquals("room-1", saga.getRoomHoldId());
+        assertTrue(saga.getSeatsHeld());
+        assertTrue(saga.getRoomsHeld());
+    }
+    
+    @Test
+    void compensatesTheHeldSeatsWhenTheRoomHoldFails() {
+        holdSeats("seat-1");
+        RuntimeException failure = new RuntimeException("No rooms left");
+        when(hotelServiceClient.createRoomHolds(any())).thenThrow(failure);
+        BookingSaga saga = sagaService.start(booking(1L));
+        
+        assertSame(failure, assertThrows(RuntimeException.class, () -> sagaService.reserve(saga)));
+        
+        // The seats are queued for release; there are no rooms to give back
+        assertEquals(SagaStatus.COMPENSATING, saga.getStatus());
+        assertTrue(saga.getSeatsHeld());
+        assertFalse(saga.getRoomsHeld());
+        assertEquals("No rooms left", saga.getLastError());
+        assertEquals(0, saga.getAttempts());
+    }
+    
+    @Test
+    void compensatesWithNothingToReleaseWhenTheSeatHoldFails() {
+        when(flightServiceClient.createSeatHolds(any())).thenThrow(new RuntimeException("No seats left"));
+        BookingSaga saga = sagaService.start(booking(1L));
+        
+        assertThrows(RuntimeException.class, () -> sagaService.reserve(saga));
+        
+        assertEquals(SagaStatus.COMPENSATED, saga.getStatus());
+        assertFalse(saga.getSeatsHeld());
+        verify(hotelServiceClient, never()).createRoomHolds(any());
+    }
+    
+    @Test
+    void releaseOnCancelQueuesTheHeldInventory() {
+        BookingSaga confirmed = saga(1L, SagaStatus.CONFIRMED, true, true);
+        confirmed.setAttempts(3);
+        BookingSaga compensated = saga(2L, SagaStatus.COMPENSATED, false, false);
+        
+        sagaService.release(List.of(1L, 2L));
+        
+        assertEquals(SagaStatus.COMPENSATING, confirmed.getStatus());
+        assertEquals(0, confirmed.getAttempts());
+        assertEquals("Booking 1 was released", confirmed.getLastError());
+        // Already given back, so left alone
+        assertEquals(SagaStatus.COMPENSATED, compensated.getStatus());
+        assertNull(compensated.getLastError());
+    }
+    
+    @Test
+    void releaseOfABookingThatHoldsNothingCompletesAtOnce() {
+        BookingSaga reserving = saga(1L, SagaStatus.RESERVING, false, false);
+        
+        sagaService.release(List.of(1L));
+        
+        assertEquals(SagaStatus.COMPENSATED, reserving.getStatus());
+    }
+    
+    @Test
+    void confirmQueuesReservedSagasAndReportsTheOnesThatCannotBeConfirmed() {
+        BookingSaga reserved = saga(1L, SagaStatus.RESERVED, true, true);
+        saga(2L, SagaStatus.RESERVING, true, false);
+        saga(3L, SagaStatus.COMPENSATING, true, true);
+        BookingSaga confirmed = saga(4L, SagaStatus.CONFIRMED, true, true);
+        
+        List<Long> unconfirmable = sagaService.confirm(List.of(1L, 2L, 3L, 4L));
+        
+        assertEquals(List.of(2L, 3L), unconfirmable);
+        assertEquals(SagaStatus.CONFIRMING, reserved.getStatus());
+        assertEquals(SagaStatus.CONFIRMED, confirmed.getStatus());
+    }
+    
+    private void holdSeats(String holdId) {
+        SeatHoldDTO hold = new SeatHoldDTO();
+        hold.setHoldId(holdId);
+        when(flightServiceClient.createSeatHolds(any())).thenReturn(ApiResponse.success("held", List.of(hold)));
+    }
+    
+    private void holdRooms(String holdId) {
+        RoomHoldDTO hold = new RoomHoldDTO();
+        hold.setHoldId(holdId);
+        when(hotelServiceClient.createRoomHolds(any())).thenReturn(ApiResponse.success("held", List.of(hold)));
+    }
+    
+    // By identity, as sagas are compared by value
+    private BookingSaga store(BookingSaga saga) {
+        if (sagas.stream().noneMatch(stored -> stored == saga)) {
+            saga.setId((long) sagas.size() + 1);
+            sagas.add(saga);
+        }
+        return saga;
+    }
+    
+    private BookingSaga saga(Long bookingId, SagaStatus status, boolean seatsHeld, boolean roomsHeld) {
+        BookingSaga saga = sagaService.start(booking(bookingId));
+        saga.setStatus(status);
+        saga.setSeatsHeld(seatsHeld);
+        saga.setRoomsHeld(roomsHeld);
+        return saga;
+    }
+    
+    private static Booking booking(Long id) {
+        Booking booking = new Booking();
+        booking.setId(id);
+        booking.setFlightId(10L);
+        booking.setHotelId(20L);
+        booking.setPassengers(2);
+        booking.setRooms(1);
+        return booking;
+    }
+}
@@ -0,0 +1,261 @@
+package com.travel.booking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.travel.booking.dto.ApiResponse;
+import com.travel.booking.entity.IdempotencyRecord;
+import com.travel.booking.exception.BookingException;
+import com.travel.booking.exception.IdempotencyConflictException;
+import com.travel.booking.repository.IdempotencyRecordRepository;
+import com.travel.booking.service.IdempotencyService.StoredResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceTest {
+    
+    private static final String OPERATION = "POST /api/bookings";
+    private static final Map<String, Object> REQUEST = Map.of("flightId", 10);
+    private static final Map<String, Object> OTHER_REQUEST = Map.of("flightId", 11);
+    private static final int DUPLICATES = 7;
+    
+    private final Map<String, IdempotencyRecord> records = new ConcurrentHashMap<>();
+    private final AtomicInteger executions = new AtomicInteger();
+    
+    private IdempotencyRecordRepository recordRepository;
+    private Cache<String, StoredResponse> idempotencyCache;
+    private IdempotencyService idempotencyService;
+    
+    @BeforeEach
+    void setUp() {
+        recordRepository = mock(IdempotencyRecordRepository.class);
+        idempotencyCache = Caffeine.newBuilder().build();
+        idempotencyService = idempotencyService(idempotencyCache);
+        
+        // Copies, so the service only sees what it saved
+        when(recordRepository.findById(any())).thenAnswer(invocation ->
+                Optional.ofNullable(records.get(invocation.<String>getArgument(0))).map(IdempotencyServiceTest::copy));
+        when(recordRepository.saveAndFlush(any())).thenAnswer(invocation -> store(invocation.getArgument(0)));
+        when(recordRepository.save(any())).thenAnswer(invocation -> store(invocation.getArgument(0)));
+        doAnswer(invocation -> records.remove(invocation.<String>getArgument(0)))
+                .when(recordRepository).deleteById(any());
+    }
+    
+    @Test
+    void runsConcurrentRequestsWithTheSameKeyOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(DUPLICATES + 1);
+        try {
+            Future<ResponseEntity<ApiResponse<String>>> original = executor.submit(() -> execute("key-1", REQUEST, () -> {
+                started.countDown();
+                await(finish);
+                return created();
+            }));
+            started.await();
+            List<Future<ResponseEntity<ApiResponse<String>>>> duplicates = new ArrayList<>();
+            for (int i = 0; i < DUPLICATES; i++) {
+                duplicates.add(executor.submit(() -> execute("key-1", REQUEST, this::created)));
+            }
+            // Let the duplicates reach the running execution before it completes
+            Thread.sleep(200);
+            finish.countDown();
+            
+            assertCreated(original.get(5, TimeUnit.SECONDS));
+            assertNull(original.get().getHeaders().getFirst("Idempotent-Replayed"));
+            for (Future<ResponseEntity<ApiResponse<String>>> duplicate : duplicates) {
+                ResponseEntity<ApiResponse<String>> response = duplicate.get(5, TimeUnit.SECONDS);
+                assertCreated(response);
+                assertEquals("true", response.getHeaders().getFirst("Idempotent-Replayed"));
+            }
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void rejectsADifferentRequestWaitingOnTheSameKey() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<ResponseEntity<ApiResponse<String>>> original = executor.submit(() -> execute("key-1", REQUEST, () -> {
+                started.countDown();
+                await(finish);
+                return created();
+            }));
+            started.await();
+            Future<ResponseEntity<ApiResponse<String>>> different = executor.submit(() -> execute("key-1", OTHER_REQUEST, this::created));
+            Thread.sleep(200);
+            finish.countDown();
+            
+            assertCreated(original.get(5, TimeUnit.SECONDS));
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> different.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IdempotencyConflictException.class, failure.getCause());
+            assertEquals(1, executions.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    @Test
+    void rejectsTheKeyReusedForADifferentRequest() {
+        execute("key-1", REQUEST, this::created);
+        
+        assertThrows(IdempotencyConflictException.class, () -> execute("key-1", OTHER_REQUEST, this::created));
+        assertThrows(IdempotencyConflictException.class,
+                () -> idempotencyService.execute("key-1", "POST /api/bookings/async", REQUEST, String.class, this::created));
+        
+        // Checked against the stored record too, once the cache no longer has it
+        idempotencyCache.invalidateAll();
+        assertThrows(IdempotencyConflictException.class, () -> execute("key-1", OTHER_REQUEST, this::created));
+        assertEquals(1, executions.get());
+    }
+    
+    @Test
+    void replaysTheStoredResponseAfterTheCacheIsEvicted() {
+        execute("key-1", REQUEST, this::created);
+        idempotencyCache.invalidateAll();
+        
+        ResponseEntity<ApiResponse<String>> replayed = execute("key-1", REQUEST, this::created);
+        
+        assertCreated(replayed);
+        assertEquals("true", replayed.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals("Booking created", replayed.getBody().getMessage());
+        assertEquals(1, executions.get());
+        // Cached again for the next replay
+        assertNotNull(idempotencyCache.getIfPresent("key-1"));
+    }
+    
+    @Test
+    void replaysOnAnotherInstanceSharingTheRecords() {
+        execute("key-1", REQUEST, this::created);
+        
+        ResponseEntity<ApiResponse<String>> replayed = idempotencyService(Caffeine.newBuilder().build())
+                .execute("key-1", OPERATION, REQUEST, String.class, this::created);
+        
+        assertCreated(replayed);
+        assertEquals(1, executions.get());
+    }
+    
+    @Test
+    void rejectsTheKeyWhileAnotherInstanceIsProcessingIt() {
+        IdempotencyService otherInstance = idempotencyService(Caffeine.newBuilder().build());
+        
+        execute("key-1", REQUEST, () -> {
+            IdempotencyConflictException conflict = assertThrows(IdempotencyConflictException.class,
+                    () -> otherInstance.execute("key-1", OPERATION, REQUEST, String.class, this::created));
+            assertTrue(conflict.getMessage().contains("still being processed"));
+            return created();
+        });
+        
+        assertEquals(1, executions.get());
+    }
+    
+    @Test
+    void releasesTheKeyWhenTheOperationFails() {
+        assertThrows(BookingException.class, () -> execute("key-1", REQUEST, () -> {
+            throw new BookingException("No seats left");
+        }));
+        assertFalse(records.containsKey("key-1"));
+        
+        ResponseEntity<ApiResponse<String>> retried = execute("key-1", REQUEST, this::created);
+        
+        assertCreated(retried);
+        assertNull(retried.getHeaders().getFirst("Idempotent-Replayed"));
+        assertEquals(1, executions.get());
+    }
+    
+    @Test
+    void rejectsBlankAndOverlongKeys() {
+        assertThrows(BookingException.class, () -> execute(" ", REQUEST, this::created));
+        assertThrows(BookingException.class, () -> execute("k".repeat(256), REQUEST, this::created));
+        assertEquals(0, executions.get());
+    }
+    
+    @Test
+    void runsEveryRequestWithoutAKey() {
+        execute(null, REQUEST, this::created);
+        execute(null, REQUEST, this::created);
+        
+        assertEquals(2, executions.get());
+        assertTrue(records.isEmpty());
+    }
+    
+    private IdempotencyService idempotencyService(Cache<String, StoredResponse> cache) {
+        IdempotencyService service = new IdempotencyService(recordRepository, cache, new ObjectMapper());
+        ReflectionTestUtils.setField(service, "ttl", Duration.ofHours(24));
+        ReflectionTestUtils.setField(service, "lockTimeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(service, "waitTimeout", Duration.ofSeconds(5));
+        return service;
+    }
+    
+    private ResponseEntity<ApiResponse<String>> execute(String key, Object request,
+                                                        Supplier<ResponseEntity<ApiResponse<String>>> action) {
+        return idempotencyService.execute(key, OPERATION, request, String.class, action);
+    }
+    
+    private ResponseEntity<ApiResponse<String>> created() {
+        executions.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .location(URI.create("/api/bookings/1"))
+                .body(ApiResponse.success("Booking created", "booking-1"));
+    }
+    
+    private static void assertCreated(ResponseEntity<ApiResponse<String>> response) {
+        assertEquals(201, response.getStatusCode().value());
+        assertEquals(URI.create("/api/bookings/1"), response.getHeaders().getLocation());
+        assertEquals("booking-1", response.getBody().getData());
+    }
+    
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private IdempotencyRecord store(IdempotencyRecord record) {
+        records.put(record.getKey(), copy(record));
+        return record;
+    }
+    
+    private static IdempotencyRecord copy(IdempotencyRecord record) {
+        return new IdempotencyRecord(record.getKey(), record.getFingerprint(), record.getStatus(),
+                record.getResponseStatus(), record.getLocation(), record.getResponseBody(), record.getVersion(),
+                record.getCreatedAt(), record.getExpiresAt());
+    }
+}
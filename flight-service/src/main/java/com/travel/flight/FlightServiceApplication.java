@@ -2,8 +2,10 @@ package com.travel.flight;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class FlightServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(FlightServiceApplication.class, args);
@@ -1,14 +1,24 @@
 package com.travel.flight.controller;
 
 import com.travel.flight.dto.ApiResponse;
+import com.travel.flight.dto.CursorPage;
 import com.travel.flight.dto.FlightDTO;
+import com.travel.flight.dto.FlightQuoteDTO;
+import com.travel.flight.dto.HoldBatchRequest;
+import com.travel.flight.dto.ItineraryDTO;
+import com.travel.flight.dto.SeatHoldDTO;
+import com.travel.flight.dto.SeatReservationRequest;
 import com.travel.flight.service.FlightService;
+import com.travel.flight.service.SeatHoldService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
@@ -17,7 +27,10 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class FlightController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final FlightService flightService;
+    private final SeatHoldService seatHoldService;
     
     @PostMapping
     public ResponseEntity<ApiResponse<FlightDTO>> createFlight(@Valid @RequestBody FlightDTO flightDTO) {
@@ -33,25 +46,63 @@ public class FlightController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<FlightDTO>>> getAllFlights() {
-        List<FlightDTO> flights = flightService.getAllFlights();
-        return ResponseEntity.ok(ApiResponse.success("Flights retrieved successfully", flights));
+    public ResponseEntity<ApiResponse<List<FlightDTO>>> getAllFlights(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<FlightDTO> flights = flightService.getAllFlights(after, limit);
+        return withNextCursor(flights.getNextCursor())
+                .body(ApiResponse.success("Flights retrieved successfully", flights.getItems()));
     }
     
     @GetMapping("/available")
-    public ResponseEntity<ApiResponse<List<FlightDTO>>> getAvailableFlights() {
-        List<FlightDTO> flights = flightService.getAvailableFlights();
-        return ResponseEntity.ok(ApiResponse.success("Available flights retrieved successfully", flights));
+    public ResponseEntity<ApiResponse<List<FlightDTO>>> getAvailableFlights(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<FlightDTO> flights = flightService.getAvailableFlights(after, limit);
+        return withNextCursor(flights.getNextCursor())
+                .body(ApiResponse.success("Available flights retrieved successfully", flights.getItems()));
     }
     
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<FlightDTO>>> searchFlights(
             @RequestParam String origin,
-            @RequestParam String destination) {
-        List<FlightDTO> flights = flightService.searchFlights(origin, destination);
+            @RequestParam String destination,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<FlightDTO> flights = flightService.searchFlights(origin, destination, after, limit);
+        return withNextCursor(flights.getNextCursor())
+                .body(ApiResponse.success("Flights searched successfully", flights.getItems()));
+    }
+    
+    @GetMapping("/routes/search")
+    public ResponseEntity<ApiResponse<List<FlightDTO>>> findFlights(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate departFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate departTo,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(defaultValue = "1") int seats,
+            @RequestParam(defaultValue = "departure") String sort,
+            @RequestParam(required = false) Integer limit) {
+        List<FlightDTO> flights = flightService.findFlights(origin, destination, departFrom, departTo, maxPrice, seats, sort, limit);
         return ResponseEntity.ok(ApiResponse.success("Flights searched successfully", flights));
     }
     
+    @GetMapping("/itineraries")
+    public ResponseEntity<ApiResponse<List<ItineraryDTO>>> findItineraries(
+            @RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Integer maxStops,
+            @RequestParam(required = false) Integer minConnectionMinutes,
+            @RequestParam(defaultValue = "1") int seats,
+            @RequestParam(defaultValue = "earliest") String sort,
+            @RequestParam(required = false) Integer limit) {
+        List<ItineraryDTO> itineraries = flightService.findItineraries(
+                origin, destination, date, maxStops, minConnectionMinutes, seats, sort, limit);
+        return ResponseEntity.ok(ApiResponse.success("Itineraries searched successfully", itineraries));
+    }
+    
     @PutMapping("/{id}")
     public ResponseEntity<ApiResponse<FlightDTO>> updateFlight(
             @PathVariable Long id, 
@@ -74,10 +125,67 @@ public class FlightController {
                         Map.of("available", available, "flightId", id != null)));
     }
     
+    @GetMapping("/quotes")
+    public ResponseEntity<ApiResponse<List<FlightQuoteDTO>>> getFlightQuotes(@RequestParam List<Long> ids) {
+        List<FlightQuoteDTO> quotes = flightService.getFlightQuotes(ids);
+        return ResponseEntity.ok(ApiResponse.success("Flight quotes retrieved successfully", quotes));
+    }
+    
+    @GetMapping("/{id}/quote")
+    public ResponseEntity<ApiResponse<FlightQuoteDTO>> getFlightQuote(@PathVariable Long id) {
+        FlightQuoteDTO quote = flightService.getFlightQuote(id);
+        return ResponseEntity.ok(ApiResponse.success("Flight quote retrieved successfully", quote));
+    }
+    
+    @PostMapping("/reserve")
+    public ResponseEntity<ApiResponse<Void>> reserveSeats(@Valid @RequestBody SeatReservationRequest request) {
+        int reserved = flightService.reserveSeats(request.getItems());
+        return ResponseEntity.ok(ApiResponse.success(reserved + " seats reserved successfully", null));
+    }
+    
+    @PostMapping("/holds")
+    public ResponseEntity<ApiResponse<List<SeatHoldDTO>>> createSeatHolds(@Valid @RequestBody SeatReservationRequest request) {
+        List<SeatHoldDTO> holds = seatHoldService.createHolds(request.getItems());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Seat holds created successfully", holds));
+    }
+    
+    @PostMapping("/holds/confirm")
+    public ResponseEntity<ApiResponse<List<SeatHoldDTO>>> confirmSeatHolds(@Valid @RequestBody HoldBatchRequest request) {
+        List<SeatHoldDTO> holds = seatHoldService.confirmHolds(request.getHoldIds());
+        return ResponseEntity.ok(ApiResponse.success("Seat holds confirmed successfully", holds));
+    }
+    
+    @PostMapping("/holds/release")
+    public ResponseEntity<ApiResponse<List<SeatHoldDTO>>> releaseSeatHolds(@Valid @RequestBody HoldBatchRequest request) {
+        List<SeatHoldDTO> holds = seatHoldService.releaseHolds(request.getHoldIds());
+        return ResponseEntity.ok(ApiResponse.success("Seat holds released successfully", holds));
+    }
+    
     @PostMapping("/{id}/reserve")
-    public ResponseEntity<ApiResponse<Void>> reserveSeat(@PathVariable Long id) {
-        flightService.reserveSeat(id);
-        return ResponseEntity.ok(ApiResponse.success("Seat reserved successfully", null));
+    public ResponseEntity<ApiResponse<Void>> reserveSeat(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int quantity) {
+        flightService.reserveSeats(id, quantity);
+        String message = quantity == 1 ? "Seat reserved successfully" : quantity + " seats reserved successfully";
+        return ResponseEntity.ok(ApiResponse.success(message, null));
+    }
+    
+    @PostMapping("/{id}/release")
+    public ResponseEntity<ApiResponse<Void>> releaseSeats(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int quantity) {
+        flightService.releaseSeats(id, quantity);
+        String message = quantity == 1 ? "Seat released successfully" : quantity + " seats released successfully";
+        return ResponseEntity.ok(ApiResponse.success(message, null));
+    }
+    
+    private ResponseEntity.BodyBuilder withNextCursor(Long nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+        }
+        return response;
     }
 }
 
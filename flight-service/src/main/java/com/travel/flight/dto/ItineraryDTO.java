@@ -0,0 +1,22 @@
+package com.travel.flight.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ItineraryDTO {
+    private List<FlightDTO> legs;
+    private Integer stops;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private Long durationMinutes;
+    // Sum of the leg prices, per passenger
+    private BigDecimal price;
+}
@@ -0,0 +1,19 @@
+package com.travel.flight.dto;
+
+import com.travel.flight.entity.SeatHold.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHoldDTO {
+    private String holdId;
+    private Long flightId;
+    private Integer quantity;
+    private HoldStatus status;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,20 @@
+package com.travel.flight.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatReservationRequest {
+    
+    @NotEmpty(message = "At least one reservation is required")
+    @Size(max = 500, message = "At most 500 flights can be reserved at once")
+    private List<@Valid SeatReservation> items;
+}
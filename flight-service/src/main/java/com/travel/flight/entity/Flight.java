@@ -9,7 +9,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "flights")
+@Table(name = "flights",
+        indexes = @Index(name = "idx_flights_route_id", columnList = "origin, destination, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -49,6 +50,9 @@ public class Flight {
     @Column(nullable = false)
     private Boolean available = true;
     
+    @Version
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
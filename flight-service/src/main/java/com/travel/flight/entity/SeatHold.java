@@ -0,0 +1,62 @@
+package com.travel.flight.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Seats taken out of a flight's inventory on behalf of a customer who has not paid yet.
+ * A hold gives its seats back when it expires unless it was confirmed first.
+ */
+@Entity
+@Table(name = "seat_holds",
+        indexes = @Index(name = "idx_seat_holds_status", columnList = "status"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeatHold {
+    
+    @Id
+    @Column(length = 36)
+    private String id;
+    
+    @Column(nullable = false)
+    private Long flightId;
+    
+    @Column(nullable = false)
+    private Integer quantity;
+    
+    @Column(nullable = false)
+    @Enumerated(EnumType.STRING)
+    private HoldStatus status;
+    
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+    
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+        updatedAt = createdAt;
+        if (status == null) {
+            status = HoldStatus.HELD;
+        }
+    }
+    
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+    
+    public enum HoldStatus {
+        HELD, CONFIRMED, RELEASED, EXPIRED
+    }
+}
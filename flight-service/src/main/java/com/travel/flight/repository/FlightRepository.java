@@ -1,14 +1,51 @@
 package com.travel.flight.repository;
 
 import com.travel.flight.entity.Flight;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface FlightRepository extends JpaRepository<Flight, Long> {
-    List<Flight> findByOriginAndDestination(String origin, String destination);
-    List<Flight> findByAvailableTrue();
+    List<Flight> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<Flight> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<Flight> findByOriginAndDestinationAndIdGreaterThanOrderByIdAsc(String origin, String destination, Long id, Pageable pageable);
+    
+    /**
+     * Takes seats in a single statement so the row lock is held only for the update itself.
+     * Returns 0 when the flight does not exist or has fewer than {@code quantity} seats left.
+     */
+    @Modifying
+    @Query("update Flight f set f.availableSeats = f.availableSeats - :quantity, " +
+            "f.available = case when f.availableSeats - :quantity > 0 then true else false end, " +
+            "f.version = f.version + 1 " +
+            "where f.id = :id and f.availableSeats >= :quantity")
+    int reserveSeats(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    /**
+     * Returns seats in a single statement, never beyond {@code totalSeats}.
+     */
+    @Modifying
+    @Query("update Flight f set f.availableSeats = case when f.availableSeats + :quantity > f.totalSeats " +
+            "then f.totalSeats else f.availableSeats + :quantity end, " +
+            "f.available = case when f.totalSeats > 0 then true else false end, " +
+            "f.version = f.version + 1 " +
+            "where f.id = :id")
+    int releaseSeats(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    /**
+     * Applies an aggregated seat delta written back from memory, kept within 0 and capacity.
+     */
+    @Modifying
+    @Query("update Flight f set f.availableSeats = case when f.availableSeats + :delta < 0 then 0 " +
+            "when f.availableSeats + :delta > f.totalSeats then f.totalSeats else f.availableSeats + :delta end, " +
+            "f.available = case when f.availableSeats + :delta > 0 then true else false end, " +
+            "f.version = f.version + 1 " +
+            "where f.id = :id")
+    int adjustSeats(@Param("id") Long id, @Param("delta") int delta);
 }
-
@@ -0,0 +1,24 @@
+package com.travel.flight.repository;
+
+import com.travel.flight.entity.SeatHold;
+import com.travel.flight.entity.SeatHold.HoldStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SeatHoldRepository extends JpaRepository<SeatHold, String> {
+    
+    // Locked in id order, so concurrent confirmations, releases and expiries never deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<SeatHold> findByIdInOrderByIdAsc(Collection<String> ids);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<SeatHold> findByIdInAndStatusOrderByIdAsc(Collection<String> ids, HoldStatus status);
+    
+    List<SeatHold> findByStatus(HoldStatus status);
+}
@@ -1,28 +1,55 @@
 package com.travel.flight.service;
 
+import com.travel.flight.dto.CursorPage;
 import com.travel.flight.dto.FlightDTO;
+import com.travel.flight.dto.FlightQuoteDTO;
+import com.travel.flight.dto.ItineraryDTO;
+import com.travel.flight.dto.SeatReservation;
 import com.travel.flight.entity.Flight;
 import com.travel.flight.exception.ResourceNotFoundException;
 import com.travel.flight.exception.InsufficientSeatsException;
 import com.travel.flight.repository.FlightRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class FlightService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int DEFAULT_ITINERARIES = 10;
+    private static final int MAX_ITINERARIES = 50;
+    
     private final FlightRepository flightRepository;
+    private final SeatInventory seatInventory;
+    private final RouteIndex routeIndex;
+    private final ItinerarySearch itinerarySearch;
+    
+    @Value("${flight.itineraries.max-stops:2}")
+    private int maxStops;
+    
+    @Value("${flight.itineraries.min-connection:45m}")
+    private Duration defaultMinConnection;
     
     @Transactional
     public FlightDTO createFlight(FlightDTO flightDTO) {
         Flight flight = mapToEntity(flightDTO);
         flight.setAvailable(flight.getAvailableSeats() > 0);
         Flight savedFlight = flightRepository.save(flight);
+        routeIndex.put(savedFlight);
         return mapToDTO(savedFlight);
     }
     
@@ -32,26 +59,72 @@ public class FlightService {
         return mapToDTO(flight);
     }
     
-    public List<FlightDTO> getAllFlights() {
-        return flightRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<FlightDTO> getAllFlights(Long after, Integer limit) {
+        return toPage(flightRepository.findByIdGreaterThanOrderByIdAsc(cursor(after), keysetPage(limit)), limit);
     }
     
-    public List<FlightDTO> getAvailableFlights() {
-        return flightRepository.findByAvailableTrue().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<FlightDTO> getAvailableFlights(Long after, Integer limit) {
+        return toPage(flightRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(cursor(after), keysetPage(limit)), limit);
     }
     
-    public List<FlightDTO> searchFlights(String origin, String destination) {
-        return flightRepository.findByOriginAndDestination(origin, destination).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<FlightDTO> searchFlights(String origin, String destination, Long after, Integer limit) {
+        return toPage(flightRepository.findByOriginAndDestinationAndIdGreaterThanOrderByIdAsc(origin, destination, cursor(after), keysetPage(limit)), limit);
+    }
+    
+    /**
+     * Flights on a route departing between two dates (both inclusive, either may be left open),
+     * answered from the {@link RouteIndex} rather than the database.
+     */
+    public List<FlightDTO> findFlights(String origin, String destination, LocalDate departFrom, LocalDate departTo,
+                                       BigDecimal maxPrice, int seats, String sort, Integer limit) {
+        if (seats < 1) {
+            throw new IllegalArgumentException("Seats must be at least 1");
+        }
+        if (departFrom != null && departTo != null && departTo.isBefore(departFrom)) {
+            throw new IllegalArgumentException("departTo cannot be before departFrom");
+        }
+        RouteIndex.SortOrder order;
+        try {
+            order = RouteIndex.SortOrder.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Sort must be one of departure, price or duration");
+        }
+        return routeIndex.search(origin, destination,
+                departFrom != null ? departFrom.atStartOfDay() : null,
+                departTo != null ? departTo.plusDays(1).atStartOfDay() : null,
+                maxPrice, seats, order, pageSize(limit));
+    }
+    
+    /**
+     * Direct and connecting itineraries whose first flight departs on {@code date}, best first.
+     */
+    public List<ItineraryDTO> findItineraries(String origin, String destination, LocalDate date, Integer stops,
+                                              Integer minConnectionMinutes, int seats, String sort, Integer limit) {
+        int allowedStops = stops != null ? stops : 1;
+        if (allowedStops < 0 || allowedStops > maxStops) {
+            throw new IllegalArgumentException("Stops must be between 0 and " + maxStops);
+        }
+        if (minConnectionMinutes != null && minConnectionMinutes < 0) {
+            throw new IllegalArgumentException("Minimum connection time cannot be negative");
+        }
+        if (seats < 1) {
+            throw new IllegalArgumentException("Seats must be at least 1");
+        }
+        ItinerarySearch.Criterion criterion;
+        try {
+            criterion = ItinerarySearch.Criterion.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Sort must be one of earliest or cheapest");
+        }
+        Duration minConnection = minConnectionMinutes != null ? Duration.ofMinutes(minConnectionMinutes) : defaultMinConnection;
+        int count = limit != null ? Math.max(1, Math.min(limit, MAX_ITINERARIES)) : DEFAULT_ITINERARIES;
+        return itinerarySearch.search(origin, destination, date, allowedStops, minConnection, seats, criterion, count);
     }
     
     @Transactional
     public FlightDTO updateFlight(Long id, FlightDTO flightDTO) {
+        // Before the read, as writing back pending seat changes bumps the row version
+        seatInventory.evict(id);
         Flight flight = flightRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + id));
         
@@ -67,6 +140,7 @@ public class FlightService {
         flight.setAvailable(flightDTO.getAvailableSeats() > 0);
         
         Flight updatedFlight = flightRepository.save(flight);
+        routeIndex.put(updatedFlight);
         return mapToDTO(updatedFlight);
     }
     
@@ -75,11 +149,45 @@ public class FlightService {
         if (!flightRepository.existsById(id)) {
             throw new ResourceNotFoundException("Flight not found with id: " + id);
         }
+        seatInventory.evict(id);
         flightRepository.deleteById(id);
+        routeIndex.remove(id);
+    }
+    
+    public FlightQuoteDTO getFlightQuote(Long flightId) {
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + flightId));
+        return toQuote(flight);
+    }
+    
+    /**
+     * Quotes for several flights in one query. Unknown ids are left out of the result rather
+     * than failing the whole lookup.
+     */
+    public List<FlightQuoteDTO> getFlightQuotes(List<Long> flightIds) {
+        if (flightIds.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " flight ids can be quoted at once");
+        }
+        return flightRepository.findAllById(flightIds).stream()
+                .map(this::toQuote)
+                .collect(Collectors.toList());
+    }
+    
+    private FlightQuoteDTO toQuote(Flight flight) {
+        return new FlightQuoteDTO(
+                flight.getId(),
+                flight.getPrice(),
+                seatInventory.availableSeats(flight),
+                seatInventory.isAvailable(flight) && seatInventory.availableSeats(flight) > 0,
+                flight.getVersion()
+        );
     }
     
     @Transactional
     public boolean checkAvailability(Long flightId) {
+        if (seatInventory.isEnabled()) {
+            return seatInventory.availableSeats(flightId) > 0;
+        }
         Flight flight = flightRepository.findById(flightId)
                 .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + flightId));
         return flight.getAvailable() && flight.getAvailableSeats() > 0;
@@ -87,16 +195,91 @@ public class FlightService {
     
     @Transactional
     public void reserveSeat(Long flightId) {
-        Flight flight = flightRepository.findById(flightId)
-                .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + flightId));
+        reserveSeats(flightId, 1);
+    }
+    
+    @Transactional
+    public void reserveSeats(Long flightId, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
         
-        if (flight.getAvailableSeats() <= 0) {
-            throw new InsufficientSeatsException("No seats available for flight: " + flightId);
+        if (seatInventory.isEnabled()) {
+            seatInventory.reserve(flightId, quantity);
+            routeIndex.adjustSeats(flightId, -quantity);
+            return;
         }
         
-        flight.setAvailableSeats(flight.getAvailableSeats() - 1);
-        flight.setAvailable(flight.getAvailableSeats() > 0);
-        flightRepository.save(flight);
+        if (flightRepository.reserveSeats(flightId, quantity) == 0) {
+            // Nothing was updated: work out why only on the failure path
+            Flight flight = flightRepository.findById(flightId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + flightId));
+            throw new InsufficientSeatsException("Not enough seats available for flight: " + flightId
+                    + " (requested " + quantity + ", available " + flight.getAvailableSeats() + ")");
+        }
+        routeIndex.adjustSeats(flightId, -quantity);
+    }
+    
+    /**
+     * Reserves seats on several flights at once, all or nothing: the first flight that cannot cover
+     * its quantity rolls back the ones already taken. Quantities for the same flight are added up,
+     * and flights are updated in id order so concurrent calls lock rows in the same order.
+     * Returns the number of seats reserved.
+     */
+    @Transactional
+    public int reserveSeats(List<SeatReservation> reservations) {
+        if (reservations.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " flights can be reserved at once");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        reservations.forEach(item -> quantities.merge(item.getFlightId(), item.getQuantity(), Integer::sum));
+        
+        if (seatInventory.isEnabled()) {
+            seatInventory.reserveAll(quantities);
+            quantities.forEach((flightId, quantity) -> routeIndex.adjustSeats(flightId, -quantity));
+        } else {
+            quantities.forEach(this::reserveSeats);
+        }
+        return quantities.values().stream().mapToInt(Integer::intValue).sum();
+    }
+    
+    @Transactional
+    public void releaseSeats(Long flightId, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        
+        if (seatInventory.isEnabled()) {
+            seatInventory.release(flightId, quantity);
+        } else if (flightRepository.releaseSeats(flightId, quantity) == 0) {
+            // Capped at capacity, so a compensation delivered twice cannot over-release
+            throw new ResourceNotFoundException("Flight not found with id: " + flightId);
+        }
+        routeIndex.adjustSeats(flightId, quantity);
+    }
+    
+    private long cursor(Long after) {
+        return after != null ? after : 0L;
+    }
+    
+    private Pageable keysetPage(Integer limit) {
+        // One extra row tells us whether another page follows
+        return PageRequest.of(0, pageSize(limit) + 1);
+    }
+    
+    private CursorPage<FlightDTO> toPage(List<Flight> rows, Integer limit) {
+        int pageSize = pageSize(limit);
+        boolean hasMore = rows.size() > pageSize;
+        List<Flight> page = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? page.get(page.size() - 1).getId() : null;
+        return new CursorPage<>(page.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
     
     private FlightDTO mapToDTO(Flight flight) {
@@ -109,9 +292,9 @@ public class FlightService {
                 flight.getDepartureTime(),
                 flight.getArrivalTime(),
                 flight.getPrice(),
-                flight.getAvailableSeats(),
+                seatInventory.availableSeats(flight),
                 flight.getTotalSeats(),
-                flight.getAvailable()
+                seatInventory.isAvailable(flight)
         );
     }
     
@@ -0,0 +1,253 @@
+package com.travel.flight.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Append-only log of inventory deltas that have been applied in memory but not yet written
+ * back to the database. Every append also folds the delta into a per-item total, so a flush
+ * writes one aggregated change per item however many reservations it covers.
+ * <p>
+ * The log is split into stripes, each with its own file, lock and totals, and an append only
+ * locks the stripe picked for the calling thread. Concurrent reservations therefore write to
+ * different files in parallel instead of queueing behind one writer, the same way
+ * {@link StripedCounter} spreads the counts themselves.
+ * <p>
+ * The log is kept in numbered segments, one file per stripe each. {@link #rotate()} moves every
+ * stripe on to the next segment and hands over the deltas of the one it closed; once those are
+ * committed, {@link #discard(long)} deletes it. The caller records the last segment it wrote
+ * back alongside the write-back itself, so segments still on disk at startup past that
+ * checkpoint are exactly the deltas that never reached the database. Appends are written
+ * straight to the file without forcing it to disk, so they survive a process crash but not a
+ * power loss.
+ */
+@Slf4j
+public class InventoryJournal implements AutoCloseable {
+    
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    
+    private final Path directory;
+    private final Stripe[] stripes;
+    private long segment;
+    
+    public InventoryJournal(Path directory, int stripes) {
+        this.directory = directory;
+        this.stripes = new Stripe[Math.max(1, stripes)];
+        for (int s = 0; s < this.stripes.length; s++) {
+            this.stripes[s] = new Stripe(s);
+        }
+    }
+    
+    /**
+     * Reads the deltas left behind by a previous run in segments after {@code checkpoint},
+     * aggregated per item, and starts a new segment after them. Segments up to the checkpoint
+     * were already written back and are skipped. The old segments stay on disk until
+     * {@link #discard(long)}.
+     */
+    public synchronized Batch open(long checkpoint) {
+        Map<Long, Integer> deltas = new HashMap<>();
+        try {
+            Files.createDirectories(directory);
+            TreeMap<Long, List<Path>> segments = existingSegments();
+            for (Map.Entry<Long, List<Path>> entry : segments.tailMap(checkpoint, false).entrySet()) {
+                for (Path file : entry.getValue()) {
+                    for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                        String[] fields = line.split(" ");
+                        try {
+                            deltas.merge(Long.parseLong(fields[0]), Integer.parseInt(fields[1]), Integer::sum);
+                        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                            // A torn final record from a crash mid-write
+                            log.warn("Skipping malformed inventory journal record '{}' in {}", line, file.getFileName());
+                        }
+                    }
+                }
+            }
+            // Never below the checkpoint, so new segments are not mistaken for written-back ones
+            long last = Math.max(checkpoint, segments.isEmpty() ? 0 : segments.lastKey());
+            segment = last + 1;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    stripe.channel = openSegment(segment, stripe.index);
+                }
+            }
+            deltas.values().removeIf(delta -> delta == 0);
+            return new Batch(deltas, last);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open inventory journal in " + directory, e);
+        }
+    }
+    
+    public void append(long itemId, int delta) {
+        Stripe stripe = stripes[probe()];
+        ByteBuffer record = ByteBuffer.wrap((itemId + " " + delta + "\n").getBytes(StandardCharsets.UTF_8));
+        synchronized (stripe) {
+            try {
+                while (record.hasRemaining()) {
+                    stripe.channel.write(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not append to inventory journal", e);
+            }
+            stripe.pending.merge(itemId, delta, Integer::sum);
+            stripe.dirty = true;
+        }
+    }
+    
+    public int pending(long itemId) {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                total += stripe.pending.getOrDefault(itemId, 0);
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Starts a new segment and returns the aggregated deltas of everything appended before it,
+     * or {@code null} when nothing was appended since the last rotation. The returned segment
+     * number is what to pass to {@link #discard(long)} once the deltas are saved.
+     * <p>
+     * Stripes are moved on one at a time, so an append on a stripe already moved lands in the
+     * next segment while one on a stripe not yet moved still lands in this one. Each stripe's
+     * file and totals change together, and deltas add up in any order, so nothing is lost or
+     * counted twice.
+     */
+    public synchronized Batch rotate() {
+        boolean dirty = false;
+        for (Stripe stripe : stripes) {
+            dirty |= stripe.dirty;
+        }
+        if (!dirty) {
+            return null;
+        }
+        long closed = segment;
+        segment++;
+        Map<Long, Integer> deltas = new HashMap<>();
+        try {
+            for (Stripe stripe : stripes) {
+                // Opened before the stripe is locked, so appends only wait for the swap
+                FileChannel next = openSegment(segment, stripe.index);
+                FileChannel previous;
+                synchronized (stripe) {
+                    previous = stripe.channel;
+                    stripe.channel = next;
+                    stripe.pending.forEach((itemId, delta) -> deltas.merge(itemId, delta, Integer::sum));
+                    stripe.pending.clear();
+                    stripe.dirty = false;
+                }
+                previous.close();
+            }
+        } catch (IOException e) {
+            // Stripes already moved on keep their records in the closed segment, so only the totals go back
+            restore(deltas);
+            throw new UncheckedIOException("Could not rotate inventory journal", e);
+        }
+        deltas.values().removeIf(delta -> delta == 0);
+        return new Batch(deltas, closed);
+    }
+    
+    /**
+     * Puts deltas back after a failed write-back. Their records are still in segments that
+     * were not discarded, so nothing is appended again.
+     */
+    public void restore(Map<Long, Integer> deltas) {
+        Stripe stripe = stripes[0];
+        synchronized (stripe) {
+            deltas.forEach((itemId, delta) -> stripe.pending.merge(itemId, delta, Integer::sum));
+            stripe.dirty = true;
+        }
+    }
+    
+    /**
+     * Deletes every segment up to and including {@code upTo}.
+     */
+    public synchronized void discard(long upTo) {
+        try {
+            for (List<Path> files : existingSegments().headMap(upTo, true).values()) {
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete inventory journal segments up to {}: {}", upTo, e.getMessage());
+        }
+    }
+    
+    @Override
+    public synchronized void close() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                try {
+                    if (stripe.channel != null) {
+                        stripe.channel.close();
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not close inventory journal stripe {}: {}", stripe.index, e.getMessage());
+                }
+            }
+        }
+    }
+    
+    private FileChannel openSegment(long number, int stripe) throws IOException {
+        return FileChannel.open(directory.resolve(SEGMENT_PREFIX + number + "-" + stripe + SEGMENT_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+    
+    private TreeMap<Long, List<Path>> existingSegments() throws IOException {
+        TreeMap<Long, List<Path>> segments = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String number = name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length());
+                int dash = number.indexOf('-');
+                segments.computeIfAbsent(Long.parseLong(dash < 0 ? number : number.substring(0, dash)),
+                        key -> new ArrayList<>()).add(file);
+            }
+        }
+        return segments;
+    }
+    
+    private int probe() {
+        long id = Thread.currentThread().getId();
+        return (int) Math.floorMod(id * 0x9E3779B97F4A7C15L >>> 32, (long) stripes.length);
+    }
+    
+    private static class Stripe {
+        private final int index;
+        private final Map<Long, Integer> pending = new HashMap<>();
+        private FileChannel channel;
+        private volatile boolean dirty;
+        
+        private Stripe(int index) {
+            this.index = index;
+        }
+    }
+    
+    /**
+     * Aggregated deltas per item, and the last segment they were read from.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Batch {
+        private final Map<Long, Integer> deltas;
+        private final long segment;
+    }
+}
@@ -0,0 +1,171 @@
+package com.travel.flight.service;
+
+import com.travel.flight.dto.FlightDTO;
+import com.travel.flight.dto.ItineraryDTO;
+import com.travel.flight.service.RouteIndex.Route;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Connection search over the {@link RouteIndex}. Airports are the nodes and every outbound route,
+ * already sorted by departure, is a time-dependent edge: after landing at time t the flights that
+ * can be caught are found by binary search from t plus the minimum connection time.
+ * <p>
+ * Partial itineraries are expanded in order of arrival (or of price), so itineraries reach the
+ * destination best first. Every flight that can be caught on a connecting route becomes its own
+ * successor, so the runner-up itineraries that share a prefix but take a later or cheaper flight
+ * on the same route are found too. A partial itinerary is not expanded once {@code limit} others
+ * that landed no later with no more legs have been expanded from the same airport, and an
+ * itinerary never has more than {@code maxStops + 1} legs, which bounds the work to the part of
+ * the network that can contribute to the first {@code limit} answers. One with fewer legs is
+ * still expanded, as it can afford more stops than those that got there first.
+ */
+@Component
+@RequiredArgsConstructor
+public class ItinerarySearch {
+    
+    private static final Comparator<Leg> BY_ARRIVAL = Comparator.<Leg>comparingLong(leg -> leg.arrival)
+            .thenComparingLong(leg -> leg.priceCents);
+    private static final Comparator<Leg> BY_PRICE = Comparator.<Leg>comparingLong(leg -> leg.priceCents)
+            .thenComparingLong(leg -> leg.arrival);
+    
+    private final RouteIndex routeIndex;
+    
+    @Value("${flight.itineraries.max-connection:24h}")
+    private Duration maxConnection;
+    
+    public enum Criterion {
+        EARLIEST, CHEAPEST
+    }
+    
+    /**
+     * Itineraries from {@code origin} to {@code destination} whose first flight departs on
+     * {@code date}, with at least {@code seats} seats left on every leg.
+     */
+    public List<ItineraryDTO> search(String origin, String destination, LocalDate date, int maxStops,
+                                     Duration minConnection, int seats, Criterion criterion, int limit) {
+        int maxLegs = maxStops + 1;
+        long minGap = minConnection.toSeconds();
+        long maxGap = maxConnection.toSeconds();
+        PriorityQueue<Leg> queue = new PriorityQueue<>(criterion == Criterion.EARLIEST ? BY_ARRIVAL : BY_PRICE);
+        
+        long dayStart = date.atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        long dayEnd = date.plusDays(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+        for (Route route : routeIndex.outbound(origin).values()) {
+            if (!canContinue(route, destination, 1, maxLegs)) {
+                continue;
+            }
+            for (int i = route.firstDepartingAtOrAfter(dayStart); i < route.size() && route.departure(i) < dayEnd; i++) {
+                if (route.seats(i) >= seats) {
+                    queue.add(new Leg(null, route, i));
+                }
+            }
+        }
+        
+        Map<String, List<Leg>> expanded = new HashMap<>();
+        List<ItineraryDTO> itineraries = new ArrayList<>();
+        while (!queue.isEmpty() && itineraries.size() < limit) {
+            Leg leg = queue.poll();
+            String airport = leg.route.destination();
+            if (airport.equals(destination)) {
+                itineraries.add(toDTO(leg));
+                continue;
+            }
+            List<Leg> expandedHere = expanded.computeIfAbsent(airport, key -> new ArrayList<>());
+            if (leg.legs == maxLegs || dominated(leg, expandedHere, limit)) {
+                continue;
+            }
+            expandedHere.add(leg);
+            
+            long earliest = leg.arrival + minGap;
+            long latest = leg.arrival + maxGap;
+            for (Route route : routeIndex.outbound(airport).values()) {
+                if (!canContinue(route, destination, leg.legs + 1, maxLegs)
+                        || route.destination().equals(origin) || leg.visits(route.destination())) {
+                    continue;
+                }
+                for (int i = route.firstDepartingAtOrAfter(earliest); i < route.size() && route.departure(i) <= latest; i++) {
+                    if (route.seats(i) >= seats) {
+                        queue.add(new Leg(leg, route, i));
+                    }
+                }
+            }
+        }
+        return itineraries;
+    }
+    
+    // At least limit partial itineraries already expanded from the same airport landed no later with no more legs
+    private static boolean dominated(Leg leg, List<Leg> expandedHere, int limit) {
+        int dominating = 0;
+        for (Leg other : expandedHere) {
+            if (other.legs <= leg.legs && other.arrival <= leg.arrival && ++dominating >= limit) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // The last leg allowed has to land at the destination, and the one before it next to it
+    private boolean canContinue(Route route, String destination, int legs, int maxLegs) {
+        if (route.destination().equals(destination) || legs < maxLegs - 1) {
+            return true;
+        }
+        return legs == maxLegs - 1 && routeIndex.outbound(route.destination()).containsKey(destination);
+    }
+    
+    private ItineraryDTO toDTO(Leg last) {
+        List<FlightDTO> legs = new ArrayList<>(last.legs);
+        for (Leg leg = last; leg != null; leg = leg.previous) {
+            legs.add(leg.route.toDTO(leg.position));
+        }
+        Collections.reverse(legs);
+        FlightDTO first = legs.get(0);
+        FlightDTO arriving = legs.get(legs.size() - 1);
+        return new ItineraryDTO(legs, legs.size() - 1, first.getDepartureTime(), arriving.getArrivalTime(),
+                Duration.between(first.getDepartureTime(), arriving.getArrivalTime()).toMinutes(),
+                BigDecimal.valueOf(last.priceCents, 2));
+    }
+    
+    /**
+     * A partial itinerary, ending with one flight of a route.
+     */
+    private static class Leg {
+        private final Leg previous;
+        private final Route route;
+        private final int position;
+        private final int legs;
+        private final long arrival;
+        private final long priceCents;
+        
+        Leg(Leg previous, Route route, int position) {
+            this.previous = previous;
+            this.route = route;
+            this.position = position;
+            this.legs = previous != null ? previous.legs + 1 : 1;
+            this.arrival = route.arrival(position);
+            this.priceCents = (previous != null ? previous.priceCents : 0) + route.priceCents(position);
+        }
+        
+        boolean visits(String airport) {
+            for (Leg leg = this; leg != null; leg = leg.previous) {
+                if (leg.route.destination().equals(airport)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.travel.flight.service;
+
+import com.travel.flight.dto.FlightDTO;
+import com.travel.flight.entity.Flight;
+import com.travel.flight.repository.FlightRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory index of flights by route. Each (origin, destination) pair keeps its flights sorted
+ * by departure time in parallel primitive arrays, so a search is a binary search for the first
+ * departure in range followed by a scan of the block after it, without touching the database.
+ * <p>
+ * Flights are loaded at startup and kept in step with creates, updates, deletes and seat changes
+ * once their transaction commits. A route's arrays are replaced as a whole when a flight is added
+ * to or removed from it; seat counts are updated in place, found by binary search on the flight id.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RouteIndex {
+    
+    private static final int LOAD_PAGE_SIZE = 1000;
+    
+    private final FlightRepository flightRepository;
+    
+    // Routes by origin, then destination: each airport's outbound routes are the adjacency
+    // used by connection searches
+    private final Map<String, Map<String, Route>> routes = new ConcurrentHashMap<>();
+    private final Map<Long, Row> indexedFlights = new ConcurrentHashMap<>();
+    
+    public enum SortOrder {
+        DEPARTURE, PRICE, DURATION
+    }
+    
+    @PostConstruct
+    void load() {
+        Map<String, Map<String, List<Row>>> rows = new HashMap<>();
+        long after = 0;
+        List<Flight> page;
+        do {
+            page = flightRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (Flight flight : page) {
+                Row row = Row.of(flight);
+                rows.computeIfAbsent(row.origin, origin -> new HashMap<>())
+                        .computeIfAbsent(row.destination, destination -> new ArrayList<>())
+                        .add(row);
+                indexedFlights.put(row.id, row);
+                after = flight.getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        rows.forEach((origin, byDestination) -> byDestination.forEach((destination, routeRows) ->
+                routesFrom(origin).put(destination, Route.of(routeRows))));
+        log.info("Indexed {} flights on {} routes", indexedFlights.size(),
+                routes.values().stream().mapToInt(Map::size).sum());
+    }
+    
+    /**
+     * Adds or replaces a flight once the surrounding transaction commits.
+     */
+    public void put(Flight flight) {
+        Row row = Row.of(flight);
+        afterCommit(() -> {
+            Row previous = indexedFlights.put(row.id, row);
+            if (previous != null && !previous.sameRoute(row)) {
+                routesFrom(previous.origin).computeIfPresent(previous.destination, (k, route) -> route.without(row.id));
+            }
+            routesFrom(row.origin).compute(row.destination, (k, route) -> route == null ? Route.of(List.of(row)) : route.with(row));
+        });
+    }
+    
+    public void remove(Long flightId) {
+        afterCommit(() -> {
+            Row previous = indexedFlights.remove(flightId);
+            if (previous != null) {
+                routesFrom(previous.origin).computeIfPresent(previous.destination, (k, route) -> route.without(flightId));
+            }
+        });
+    }
+    
+    /**
+     * Applies a seat change once the surrounding transaction commits, kept within 0 and capacity.
+     */
+    public void adjustSeats(Long flightId, int delta) {
+        afterCommit(() -> {
+            Row indexed = indexedFlights.get(flightId);
+            if (indexed != null) {
+                // Under the route's map entry, so the change cannot land on arrays being replaced
+                routesFrom(indexed.origin).computeIfPresent(indexed.destination, (k, route) -> {
+                    route.adjustSeats(flightId, delta);
+                    return route;
+                });
+            }
+        });
+    }
+    
+    /**
+     * Flights on a route departing in {@code [from, to)} that cost at most {@code maxPrice} and
+     * have at least {@code seats} seats left, in the given order. Null bounds are open.
+     */
+    public List<FlightDTO> search(String origin, String destination, LocalDateTime from, LocalDateTime to,
+                                  BigDecimal maxPrice, int seats, SortOrder sort, int limit) {
+        Route route = outbound(origin).get(destination);
+        if (route == null) {
+            return List.of();
+        }
+        long fromSecond = from != null ? epochSecond(from) : Long.MIN_VALUE;
+        long toSecond = to != null ? epochSecond(to) : Long.MAX_VALUE;
+        long maxCents = maxPrice != null ? maxPrice.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue() : Long.MAX_VALUE;
+        
+        int[] matches = new int[Math.min(route.size(), sort == SortOrder.DEPARTURE ? limit : Integer.MAX_VALUE)];
+        int count = 0;
+        for (int i = route.firstDepartingAtOrAfter(fromSecond); i < route.size() && route.departures[i] < toSecond; i++) {
+            if (route.prices[i] <= maxCents && route.seats.get(i) >= seats) {
+                matches[count++] = i;
+                // Already in departure order, so the scan can stop at the first page
+                if (count == matches.length) {
+                    break;
+                }
+            }
+        }
+        
+        if (sort == SortOrder.DEPARTURE) {
+            return Arrays.stream(matches, 0, count).mapToObj(route::toDTO).collect(Collectors.toList());
+        }
+        Comparator<Integer> order = sort == SortOrder.PRICE
+                ? Comparator.comparingLong(i -> route.prices[i])
+                : Comparator.comparingLong(i -> route.arrivals[i] - route.departures[i]);
+        // Ties keep departure order, as the positions are already sorted by it
+        return Arrays.stream(matches, 0, count).boxed()
+                .sorted(order)
+                .limit(limit)
+                .map(route::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    /**
+     * The routes leaving an airport, keyed by destination. Each {@link Route} is an immutable
+     * snapshot apart from its seat counts.
+     */
+    Map<String, Route> outbound(String origin) {
+        return routes.getOrDefault(origin, Map.of());
+    }
+    
+    private Map<String, Route> routesFrom(String origin) {
+        return routes.computeIfAbsent(origin, key -> new ConcurrentHashMap<>());
+    }
+    
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+    
+    private static long epochSecond(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+    
+    private static LocalDateTime dateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+    
+    /**
+     * One flight's indexed fields, captured when it is saved.
+     */
+    @RequiredArgsConstructor
+    private static class Row {
+        private final long id;
+        private final String flightNumber;
+        private final String airline;
+        private final String origin;
+        private final String destination;
+        private final long departure;
+        private final long arrival;
+        private final long priceCents;
+        private final int seats;
+        private final int totalSeats;
+        
+        static Row of(Flight flight) {
+            return new Row(flight.getId(), flight.getFlightNumber(), flight.getAirline(),
+                    flight.getOrigin(), flight.getDestination(),
+                    epochSecond(flight.getDepartureTime()), epochSecond(flight.getArrivalTime()),
+                    flight.getPrice().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue(),
+                    flight.getAvailableSeats(), flight.getTotalSeats());
+        }
+        
+        boolean sameRoute(Row other) {
+            return origin.equals(other.origin) && destination.equals(other.destination);
+        }
+    }
+    
+    /**
+     * The flights of one route as parallel arrays sorted by departure, then id, plus the ids in
+     * ascending order with their positions so a seat change finds its flight by binary search.
+     */
+    static class Route {
+        private final String origin;
+        private final String destination;
+        private final long[] ids;
+        private final long[] sortedIds;
+        private final int[] positionsById;
+        private final long[] departures;
+        private final long[] arrivals;
+        private final long[] prices;
+        private final int[] totalSeats;
+        private final AtomicIntegerArray seats;
+        private final String[] flightNumbers;
+        private final String[] airlines;
+        
+        private Route(List<Row> rows) {
+            int n = rows.size();
+            origin = rows.get(0).origin;
+            destination = rows.get(0).destination;
+            ids = new long[n];
+            departures = new long[n];
+            arrivals = new long[n];
+            prices = new long[n];
+            totalSeats = new int[n];
+            seats = new AtomicIntegerArray(n);
+            flightNumbers = new String[n];
+            airlines = new String[n];
+            for (int i = 0; i < n; i++) {
+                Row row = rows.get(i);
+                ids[i] = row.id;
+                departures[i] = row.departure;
+                arrivals[i] = row.arrival;
+                prices[i] = row.priceCents;
+                totalSeats[i] = row.totalSeats;
+                seats.set(i, row.seats);
+                flightNumbers[i] = row.flightNumber;
+                airlines[i] = row.airline;
+            }
+            positionsById = IntStream.range(0, n).boxed()
+                    .sorted(Comparator.comparingLong(i -> ids[i]))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            sortedIds = new long[n];
+            for (int k = 0; k < n; k++) {
+                sortedIds[k] = ids[positionsById[k]];
+            }
+        }
+        
+        static Route of(List<Row> rows) {
+            List<Row> sorted = new ArrayList<>(rows);
+            sorted.sort(Comparator.<Row>comparingLong(row -> row.departure).thenComparingLong(row -> row.id));
+            return new Route(sorted);
+        }
+        
+        int size() {
+            return ids.length;
+        }
+        
+        String destination() {
+            return destination;
+        }
+        
+        long departure(int i) {
+            return departures[i];
+        }
+        
+        long arrival(int i) {
+            return arrivals[i];
+        }
+        
+        long priceCents(int i) {
+            return prices[i];
+        }
+        
+        int seats(int i) {
+            return seats.get(i);
+        }
+        
+        Route with(Row row) {
+            List<Row> rows = rows(row.id);
+            rows.add(row);
+            return of(rows);
+        }
+        
+        /**
+         * This route without the flight, or {@code null} when nothing is left.
+         */
+        Route without(long flightId) {
+            List<Row> rows = rows(flightId);
+            return rows.isEmpty() ? null : new Route(rows);
+        }
+        
+        void adjustSeats(long flightId, int delta) {
+            int i = positionOf(flightId);
+            if (i >= 0) {
+                seats.set(i, Math.max(0, Math.min(seats.get(i) + delta, totalSeats[i])));
+            }
+        }
+        
+        int firstDepartingAtOrAfter(long second) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (departures[mid] < second) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+        
+        FlightDTO toDTO(int i) {
+            int available = seats.get(i);
+            return new FlightDTO(ids[i], flightNumbers[i], airlines[i], origin, destination,
+                    dateTime(departures[i]), dateTime(arrivals[i]), BigDecimal.valueOf(prices[i], 2),
+                    available, totalSeats[i], available > 0);
+        }
+        
+        private int positionOf(long flightId) {
+            int k = Arrays.binarySearch(sortedIds, flightId);
+            return k >= 0 ? positionsById[k] : -1;
+        }
+        
+        // Every flight except the given one, in departure order
+        private List<Row> rows(long exceptId) {
+            List<Row> rows = new ArrayList<>(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != exceptId) {
+                    rows.add(new Row(ids[i], flightNumbers[i], airlines[i], origin, destination,
+                            departures[i], arrivals[i], prices[i], seats.get(i), totalSeats[i]));
+                }
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.travel.flight.service;
+
+import com.travel.flight.dto.SeatHoldDTO;
+import com.travel.flight.dto.SeatReservation;
+import com.travel.flight.entity.SeatHold;
+import com.travel.flight.entity.SeatHold.HoldStatus;
+import com.travel.flight.exception.HoldNotActiveException;
+import com.travel.flight.exception.InsufficientSeatsException;
+import com.travel.flight.exception.ResourceNotFoundException;
+import com.travel.flight.repository.SeatHoldRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Time-limited holds on flight seats. Creating a hold takes the seats right away; confirming it
+ * (once the booking is paid) makes the reservation permanent, and a hold that is neither
+ * confirmed nor released before its TTL gives its seats back. Expiry deadlines live in a
+ * {@link TimingWheel}, so each tick only loads the holds that actually came due.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SeatHoldService {
+    
+    private final SeatHoldRepository holdRepository;
+    private final FlightService flightService;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${flight.holds.ttl:15m}")
+    private Duration ttl;
+    
+    @Value("${flight.holds.tick-ms:1000}")
+    private long tickMillis;
+    
+    @Value("${flight.holds.expiry-batch-size:500}")
+    private int expiryBatchSize;
+    
+    private TimingWheel<String> expiryWheel;
+    
+    @PostConstruct
+    void start() {
+        expiryWheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleOutstandingHolds() {
+        List<SeatHold> held = holdRepository.findByStatus(HoldStatus.HELD);
+        held.forEach(this::scheduleExpiry);
+        if (!held.isEmpty()) {
+            log.info("Scheduled expiry of {} outstanding flight holds", held.size());
+        }
+    }
+    
+    /**
+     * Holds seats for every item, all or nothing, and returns one hold per item in the same order.
+     */
+    @Transactional
+    public List<SeatHoldDTO> createHolds(List<SeatReservation> items) {
+        flightService.reserveSeats(items);
+        
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        List<SeatHold> holds = items.stream()
+                .map(item -> new SeatHold(UUID.randomUUID().toString(), item.getFlightId(), item.getQuantity(),
+                        HoldStatus.HELD, expiresAt, null, null))
+                .collect(Collectors.toList());
+        holdRepository.saveAll(holds);
+        // If the transaction rolls back, the entries find no HELD hold when they come due
+        holds.forEach(this::scheduleExpiry);
+        return holds.stream().map(this::mapToDTO).collect(Collectors.toList());
+    }
+    
+    /**
+     * Turns holds into permanent reservations. Confirming twice is harmless. A hold that already
+     * expired takes its seats again if they are still available, so a payment that arrives
+     * late does not lose the booking; a released hold cannot be confirmed.
+     */
+    @Transactional
+    public List<SeatHoldDTO> confirmHolds(List<String> holdIds) {
+        List<SeatHold> holds = lockHolds(holdIds);
+        for (SeatHold hold : holds) {
+            if (hold.getStatus() == HoldStatus.RELEASED) {
+                throw new HoldNotActiveException("Hold " + hold.getId() + " was released");
+            }
+            if (hold.getStatus() == HoldStatus.EXPIRED) {
+                try {
+                    flightService.reserveSeats(hold.getFlightId(), hold.getQuantity());
+                } catch (InsufficientSeatsException e) {
+                    throw new HoldNotActiveException("Hold " + hold.getId() + " expired and its seats are no longer available");
+                }
+            }
+            hold.setStatus(HoldStatus.CONFIRMED);
+        }
+        return holdRepository.saveAll(holds).stream().map(this::mapToDTO).collect(Collectors.toList());
+    }
+    
+    /**
+     * Gives back the seats of held or confirmed holds. Releasing twice, or releasing a hold
+     * that already expired, is harmless.
+     */
+    @Transactional
+    public List<SeatHoldDTO> releaseHolds(List<String> holdIds) {
+        List<SeatHold> holds = lockHolds(holdIds);
+        Map<Long, Integer> released = new TreeMap<>();
+        for (SeatHold hold : holds) {
+            if (hold.getStatus() == HoldStatus.HELD || hold.getStatus() == HoldStatus.CONFIRMED) {
+                hold.setStatus(HoldStatus.RELEASED);
+                released.merge(hold.getFlightId(), hold.getQuantity(), Integer::sum);
+            }
+        }
+        released.forEach(flightService::releaseSeats);
+        return holdRepository.saveAll(holds).stream().map(this::mapToDTO).collect(Collectors.toList());
+    }
+    
+    @Scheduled(fixedDelayString = "${flight.holds.tick-ms:1000}")
+    public void expireHolds() {
+        List<String> due = expiryWheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += expiryBatchSize) {
+            List<String> batch = due.subList(from, Math.min(from + expiryBatchSize, due.size()));
+            try {
+                Integer expired = transactionTemplate.execute(status -> expire(batch));
+                if (expired != null && expired > 0) {
+                    log.info("Expired {} flight holds", expired);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire {} flight holds, retrying next tick: {}", batch.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis() + tickMillis;
+                batch.forEach(holdId -> expiryWheel.schedule(holdId, retryAt));
+            }
+        }
+    }
+    
+    private int expire(List<String> holdIds) {
+        // Holds confirmed or released in the meantime are simply not found
+        List<SeatHold> holds = holdRepository.findByIdInAndStatusOrderByIdAsc(holdIds, HoldStatus.HELD);
+        Map<Long, Integer> released = new TreeMap<>();
+        for (SeatHold hold : holds) {
+            hold.setStatus(HoldStatus.EXPIRED);
+            released.merge(hold.getFlightId(), hold.getQuantity(), Integer::sum);
+        }
+        holdRepository.saveAll(holds);
+        released.forEach(flightService::releaseSeats);
+        return holds.size();
+    }
+    
+    private List<SeatHold> lockHolds(List<String> holdIds) {
+        Set<String> ids = new HashSet<>(holdIds);
+        List<SeatHold> holds = holdRepository.findByIdInOrderByIdAsc(ids);
+        if (holds.size() < ids.size()) {
+            holds.forEach(hold -> ids.remove(hold.getId()));
+            throw new ResourceNotFoundException("Holds not found: " + ids);
+        }
+        return holds;
+    }
+    
+    private void scheduleExpiry(SeatHold hold) {
+        expiryWheel.schedule(hold.getId(), hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+    
+    private SeatHoldDTO mapToDTO(SeatHold hold) {
+        return new SeatHoldDTO(hold.getId(), hold.getFlightId(), hold.getQuantity(), hold.getStatus(), hold.getExpiresAt());
+    }
+}
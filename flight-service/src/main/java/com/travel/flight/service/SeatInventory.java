@@ -0,0 +1,296 @@
+package com.travel.flight.service;
+
+import com.travel.flight.entity.Flight;
+import com.travel.flight.entity.InventoryCheckpoint;
+import com.travel.flight.exception.InsufficientSeatsException;
+import com.travel.flight.exception.ResourceNotFoundException;
+import com.travel.flight.repository.FlightRepository;
+import com.travel.flight.repository.InventoryCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional in-memory seat inventory for flash sales, where even a conditional UPDATE on one
+ * flight row serializes every reservation. With {@code flight.inventory.engine=memory} seats
+ * are taken from a {@link StripedCounter} per flight, every change is journaled before the
+ * call returns, and the aggregated deltas are written back to the flight rows in the
+ * background. Counters are loaded lazily from the database on first use.
+ * <p>
+ * The database row lags behind by up to one flush interval, so reads that have to see the
+ * current count go through {@link #availableSeats(Flight)} rather than the entity.
+ * <p>
+ * The last segment written back is kept in an {@link InventoryCheckpoint} row, committed with
+ * the write-back. Segments up to it are never replayed, and a journal found next to a database
+ * without a checkpoint, such as a fresh in-memory one, is dropped rather than replayed.
+ * <p>
+ * Counters are not part of the caller's transaction, so they follow it: seats taken inside a
+ * transaction that rolls back are given back, and seats released inside one are only given
+ * back once it commits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SeatInventory {
+    
+    private static final String JOURNAL = "seats";
+    
+    private final FlightRepository flightRepository;
+    private final InventoryCheckpointRepository checkpointRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${flight.inventory.engine:database}")
+    private String engine;
+    
+    @Value("${flight.inventory.stripes:8}")
+    private int stripes;
+    
+    @Value("${flight.inventory.journal-dir:${java.io.tmpdir}/flight-inventory}")
+    private String journalDir;
+    
+    private final Map<Long, StripedCounter> counters = new ConcurrentHashMap<>();
+    
+    // Held while writing back, and while a counter is loaded or dropped, so a counter is never
+    // built from a row that is missing deltas already taken out of the journal
+    private final Object flushLock = new Object();
+    
+    private InventoryJournal journal;
+    private TransactionTemplate writeBackTransaction;
+    
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        // Write-back commits on its own, also when a flush is triggered inside a caller's transaction
+        writeBackTransaction = new TransactionTemplate(transactionManager);
+        writeBackTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        journal = new InventoryJournal(Path.of(journalDir), stripes);
+        Optional<InventoryCheckpoint> checkpoint = checkpointRepository.findById(JOURNAL);
+        InventoryJournal.Batch recovered = journal.open(checkpoint.map(InventoryCheckpoint::getSegment).orElse(0L));
+        if (checkpoint.isEmpty()) {
+            // The checkpoint is saved before the first append, so a database without one has never
+            // seen this journal, e.g. an in-memory database reseeded on restart: its rows do not
+            // carry the old deltas and replaying them would apply changes made to rows that are gone
+            if (!recovered.getDeltas().isEmpty()) {
+                log.warn("Discarding seat changes for {} flights journaled against another database",
+                        recovered.getDeltas().size());
+            }
+            writeBackTransaction.executeWithoutResult(status -> checkpointRepository.save(
+                    new InventoryCheckpoint(JOURNAL, recovered.getSegment())));
+        } else if (!recovered.getDeltas().isEmpty()) {
+            writeBackTransaction.executeWithoutResult(status -> writeBack(recovered));
+            log.info("Recovered unflushed seat changes for {} flights from the inventory journal",
+                    recovered.getDeltas().size());
+        }
+        journal.discard(recovered.getSegment());
+    }
+    
+    public boolean isEnabled() {
+        return "memory".equalsIgnoreCase(engine);
+    }
+    
+    public void reserve(Long flightId, int quantity) {
+        take(flightId, quantity);
+        onRollback(() -> give(flightId, quantity));
+    }
+    
+    /**
+     * Reserves several flights at once. If one cannot be covered, the seats already taken for the
+     * others are given back before the failure is rethrown.
+     */
+    public void reserveAll(Map<Long, Integer> quantities) {
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        try {
+            quantities.forEach((flightId, quantity) -> {
+                take(flightId, quantity);
+                taken.put(flightId, quantity);
+            });
+        } catch (RuntimeException e) {
+            taken.forEach(this::give);
+            throw e;
+        }
+        onRollback(() -> taken.forEach(this::give));
+    }
+    
+    public void release(Long flightId, int quantity) {
+        // Loaded now, so an unknown flight still fails the caller
+        counter(flightId);
+        afterCommit(() -> give(flightId, quantity));
+    }
+    
+    private void take(Long flightId, int quantity) {
+        StripedCounter seats = counter(flightId);
+        if (!seats.tryTake(quantity)) {
+            throw new InsufficientSeatsException("Not enough seats available for flight: " + flightId
+                    + " (requested " + quantity + ", available " + seats.sum() + ")");
+        }
+        try {
+            journal.append(flightId, -quantity);
+        } catch (RuntimeException e) {
+            seats.give(quantity);
+            throw e;
+        }
+    }
+    
+    private void give(Long flightId, int quantity) {
+        StripedCounter seats = counter(flightId);
+        // Capped at capacity, so a compensation delivered twice cannot over-release
+        int released = seats.give(quantity);
+        if (released == 0) {
+            return;
+        }
+        try {
+            journal.append(flightId, released);
+        } catch (RuntimeException e) {
+            seats.tryTake(released);
+            throw e;
+        }
+    }
+    
+    public int availableSeats(Long flightId) {
+        return counter(flightId).sum();
+    }
+    
+    /**
+     * The current seat count for a flight that was already read from the database: the
+     * in-memory count when this engine holds one, otherwise the persisted value.
+     */
+    public int availableSeats(Flight flight) {
+        StripedCounter seats = isEnabled() ? counters.get(flight.getId()) : null;
+        return seats != null ? seats.sum() : flight.getAvailableSeats();
+    }
+    
+    public boolean isAvailable(Flight flight) {
+        StripedCounter seats = isEnabled() ? counters.get(flight.getId()) : null;
+        return seats != null ? seats.sum() > 0 : flight.getAvailable();
+    }
+    
+    /**
+     * Drops the in-memory count for a flight whose row is being edited directly, once before
+     * and once after the surrounding transaction commits, so the next reservation reloads it.
+     * Reservations taken while the edit is in flight are applied on top of it.
+     */
+    public void evict(Long flightId) {
+        if (!isEnabled()) {
+            return;
+        }
+        drop(flightId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(flightId);
+                }
+            });
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${flight.inventory.flush-interval-ms:200}")
+    public void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (flushLock) {
+            InventoryJournal.Batch batch = journal.rotate();
+            if (batch == null) {
+                return;
+            }
+            if (!batch.getDeltas().isEmpty()) {
+                try {
+                    writeBackTransaction.executeWithoutResult(status -> writeBack(batch));
+                } catch (RuntimeException e) {
+                    journal.restore(batch.getDeltas());
+                    log.warn("Failed to write back seat changes for {} flights, will retry: {}",
+                            batch.getDeltas().size(), e.getMessage());
+                    return;
+                }
+            }
+            // A crash before this delete is harmless: the checkpoint committed with the batch skips it
+            journal.discard(batch.getSegment());
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (!isEnabled()) {
+            return;
+        }
+        flush();
+        journal.close();
+    }
+    
+    private StripedCounter counter(Long flightId) {
+        StripedCounter seats = counters.get(flightId);
+        if (seats != null) {
+            return seats;
+        }
+        synchronized (flushLock) {
+            return counters.computeIfAbsent(flightId, this::load);
+        }
+    }
+    
+    private StripedCounter load(Long flightId) {
+        Flight flight = flightRepository.findById(flightId)
+                .orElseThrow(() -> new ResourceNotFoundException("Flight not found with id: " + flightId));
+        // Changes journaled since the last write-back are not in the row yet
+        int available = flight.getAvailableSeats() + journal.pending(flightId);
+        return new StripedCounter(Math.max(0, Math.min(available, flight.getTotalSeats())),
+                flight.getTotalSeats(), stripes);
+    }
+    
+    private void onRollback(Runnable undo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        undo.run();
+                    }
+                }
+            });
+        }
+    }
+    
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+    
+    private void drop(Long flightId) {
+        synchronized (flushLock) {
+            flush();
+            counters.remove(flightId);
+        }
+    }
+    
+    private void writeBack(InventoryJournal.Batch batch) {
+        // Ascending ids keep row locks in a stable order
+        new TreeMap<>(batch.getDeltas()).forEach(flightRepository::adjustSeats);
+        checkpointRepository.save(new InventoryCheckpoint(JOURNAL, batch.getSegment()));
+    }
+}
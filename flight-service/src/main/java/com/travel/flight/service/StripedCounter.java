@@ -0,0 +1,96 @@
+package com.travel.flight.service;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A bounded counter split across independent stripes, so concurrent takes on the same item
+ * mostly compare-and-swap different cache lines instead of all spinning on one value. A take
+ * is served by a single stripe when it can be; only when the remaining units are scattered
+ * across stripes does it fall back to gathering them under the counter's monitor.
+ */
+public class StripedCounter {
+    
+    // Ints per 64-byte cache line, so neighbouring stripes never share one
+    private static final int PAD = 16;
+    
+    private final AtomicIntegerArray cells;
+    private final int stripes;
+    private final int capacity;
+    
+    public StripedCounter(int available, int capacity, int stripes) {
+        this.stripes = Math.max(1, stripes);
+        this.capacity = capacity;
+        this.cells = new AtomicIntegerArray(this.stripes * PAD);
+        int share = available / this.stripes;
+        for (int s = 0; s < this.stripes; s++) {
+            cells.set(s * PAD, share + (s < available % this.stripes ? 1 : 0));
+        }
+    }
+    
+    public boolean tryTake(int quantity) {
+        int start = probe();
+        for (int i = 0; i < stripes; i++) {
+            int cell = ((start + i) % stripes) * PAD;
+            int value = cells.get(cell);
+            while (value >= quantity) {
+                if (cells.compareAndSet(cell, value, value - quantity)) {
+                    return true;
+                }
+                value = cells.get(cell);
+            }
+        }
+        return takeAcrossStripes(quantity);
+    }
+    
+    /**
+     * Adds units back without going beyond capacity and returns how many were actually added.
+     */
+    public synchronized int give(int quantity) {
+        int added = Math.max(0, Math.min(quantity, capacity - sum()));
+        if (added > 0) {
+            cells.addAndGet(probe() * PAD, added);
+        }
+        return added;
+    }
+    
+    public int sum() {
+        int total = 0;
+        for (int s = 0; s < stripes; s++) {
+            total += cells.get(s * PAD);
+        }
+        return total;
+    }
+    
+    private synchronized boolean takeAcrossStripes(int quantity) {
+        int[] taken = new int[stripes];
+        int remaining = quantity;
+        for (int s = 0; s < stripes && remaining > 0; s++) {
+            int cell = s * PAD;
+            int value = cells.get(cell);
+            while (value > 0) {
+                int take = Math.min(value, remaining);
+                if (cells.compareAndSet(cell, value, value - take)) {
+                    taken[s] = take;
+                    remaining -= take;
+                    break;
+                }
+                value = cells.get(cell);
+            }
+        }
+        if (remaining > 0) {
+            // Not enough in total: hand back what was gathered
+            for (int s = 0; s < stripes; s++) {
+                if (taken[s] > 0) {
+                    cells.addAndGet(s * PAD, taken[s]);
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+    
+    private int probe() {
+        long id = Thread.currentThread().getId();
+        return (int) Math.floorMod(id * 0x9E3779B97F4A7C15L >>> 32, (long) stripes);
+    }
+}
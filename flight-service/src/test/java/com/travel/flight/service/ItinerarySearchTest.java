@@ -0,0 +1,127 @@
+package com.travel.flight.service;
+
+import com.travel.flight.dto.FlightDTO;
+import com.travel.flight.dto.ItineraryDTO;
+import com.travel.flight.entity.Flight;
+import com.travel.flight.repository.FlightRepository;
+import com.travel.flight.service.ItinerarySearch.Criterion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class ItinerarySearchTest {
+    
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 1);
+    private static final Duration ONE_HOUR = Duration.ofHours(1);
+    
+    private RouteIndex routeIndex;
+    private ItinerarySearch search;
+    
+    @BeforeEach
+    void setUp() {
+        routeIndex = new RouteIndex(mock(FlightRepository.class));
+        search = new ItinerarySearch(routeIndex);
+        ReflectionTestUtils.setField(search, "maxConnection", Duration.ofHours(24));
+        
+        // Two direct flights, and one feeder into Dublin with two onward flights
+        routeIndex.put(flight(1, "LHR", "JFK", DAY, "09:00", "17:00", "900.00", 10));
+        routeIndex.put(flight(2, "LHR", "JFK", DAY, "12:00", "20:00", "500.00", 10));
+        routeIndex.put(flight(3, "LHR", "DUB", DAY, "08:00", "09:00", "100.00", 10));
+        routeIndex.put(flight(4, "DUB", "JFK", DAY, "10:30", "16:00", "300.00", 1));
+        routeIndex.put(flight(5, "DUB", "JFK", DAY, "14:00", "19:30", "250.00", 10));
+        // Departs the next day, so it never starts an itinerary
+        routeIndex.put(flight(6, "LHR", "JFK", DAY.plusDays(1), "01:00", "09:00", "100.00", 10));
+    }
+    
+    @Test
+    void ordersItinerariesByArrival() {
+        List<ItineraryDTO> itineraries = search.search("LHR", "JFK", DAY, 1, ONE_HOUR, 1, Criterion.EARLIEST, 10);
+        
+        assertEquals(List.of(List.of(3L, 4L), List.of(1L), List.of(3L, 5L), List.of(2L)), flightIds(itineraries));
+    }
+    
+    @Test
+    void ordersItinerariesByPrice() {
+        List<ItineraryDTO> itineraries = search.search("LHR", "JFK", DAY, 1, ONE_HOUR, 1, Criterion.CHEAPEST, 10);
+        
+        assertEquals(List.of(List.of(3L, 5L), List.of(3L, 4L), List.of(2L), List.of(1L)), flightIds(itineraries));
+        assertEquals(new BigDecimal("350.00"), itineraries.get(0).getPrice());
+        assertEquals(1, itineraries.get(0).getStops());
+        assertEquals(11 * 60 + 30L, itineraries.get(0).getDurationMinutes());
+    }
+    
+    @Test
+    void findsTheRunnerUpOnTheSameConnectingRoute() {
+        List<ItineraryDTO> itineraries = search.search("LHR", "JFK", DAY, 1, ONE_HOUR, 1, Criterion.EARLIEST, 3);
+        
+        // The later Dublin departure shares its first leg with the best itinerary
+        assertEquals(List.of(List.of(3L, 4L), List.of(1L), List.of(3L, 5L)), flightIds(itineraries));
+    }
+    
+    @Test
+    void stopsAtTheLimit() {
+        List<ItineraryDTO> itineraries = search.search("LHR", "JFK", DAY, 1, ONE_HOUR, 1, Criterion.CHEAPEST, 2);
+        
+        assertEquals(List.of(List.of(3L, 5L), List.of(3L, 4L)), flightIds(itineraries));
+    }
+    
+    @Test
+    void keepsToTheMaximumNumberOfStops() {
+        List<ItineraryDTO> itineraries = search.search("LHR", "JFK", DAY, 0, ONE_HOUR, 1, Criterion.EARLIEST, 10);
+        
+        assertEquals(List.of(List.of(1L), List.of(2L)), flightIds(itineraries));
+    }
+    
+    @Test
+    void skipsFlightsWithoutEnoughSeats() {
+        List<ItineraryDTO> itineraries = search.search("LHR", "JFK", DAY, 1, ONE_HOUR, 2, Criterion.EARLIEST, 10);
+        
+        assertEquals(List.of(List.of(1L), List.of(3L, 5L), List.of(2L)), flightIds(itineraries));
+    }
+    
+    @Test
+    void skipsConnectionsShorterThanTheMinimum() {
+        List<ItineraryDTO> itineraries = search.search("LHR", "JFK", DAY, 1, Duration.ofHours(2), 1, Criterion.EARLIEST, 10);
+        
+        assertEquals(List.of(List.of(1L), List.of(3L, 5L), List.of(2L)), flightIds(itineraries));
+    }
+    
+    @Test
+    void expandsAnAirportAgainForAnItineraryWithFewerLegs() {
+        routeIndex.put(flight(101, "AAA", "BBB", DAY, "00:00", "01:00", "100.00", 10));
+        routeIndex.put(flight(102, "BBB", "XXX", DAY, "01:30", "02:00", "100.00", 10));
+        routeIndex.put(flight(103, "AAA", "XXX", DAY, "01:00", "03:00", "100.00", 10));
+        // Gone before either itinerary reaches XXX
+        routeIndex.put(flight(104, "XXX", "DDD", DAY, "01:00", "02:00", "100.00", 10));
+        routeIndex.put(flight(105, "XXX", "YYY", DAY, "04:00", "05:00", "100.00", 10));
+        routeIndex.put(flight(106, "YYY", "DDD", DAY, "06:00", "07:00", "100.00", 10));
+        
+        // Landing at XXX over BBB first has no way on within two stops; the direct flight does
+        List<ItineraryDTO> itineraries = search.search("AAA", "DDD", DAY, 2, Duration.ofMinutes(30), 1, Criterion.EARLIEST, 1);
+        
+        assertEquals(List.of(List.of(103L, 105L, 106L)), flightIds(itineraries));
+    }
+    
+    private static List<List<Long>> flightIds(List<ItineraryDTO> itineraries) {
+        return itineraries.stream()
+                .map(itinerary -> itinerary.getLegs().stream().map(FlightDTO::getId).collect(Collectors.toList()))
+                .collect(Collectors.toList());
+    }
+    
+    private static Flight flight(long id, String origin, String destination, LocalDate date,
+                                 String departure, String arrival, String price, int seats) {
+        return new Flight(id, "TB" + id, "Test Air", origin, destination,
+                date.atTime(LocalTime.parse(departure)), date.atTime(LocalTime.parse(arrival)),
+                new BigDecimal(price), seats, 10, true, 0L, null);
+    }
+}
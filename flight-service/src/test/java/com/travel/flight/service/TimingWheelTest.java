@@ -0,0 +1,99 @@
+package com.travel.flight.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimingWheelTest {
+    
+    private static final long TICK = 10;
+    
+    @Test
+    void expiresAnEntryOnceItsDeadlineIsReached() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("hold", 50);
+        
+        assertEquals(List.of(), wheel.advance(49));
+        assertEquals(List.of("hold"), wheel.advance(50));
+        assertEquals(List.of(), wheel.advance(1000));
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void roundsDeadlinesUpToTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 0);
+        wheel.schedule("hold", 41);
+        
+        assertEquals(List.of(), wheel.advance(49));
+        assertEquals(List.of("hold"), wheel.advance(50));
+    }
+    
+    @Test
+    void returnsPastDeadlinesOnTheNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(TICK, 1000);
+        wheel.schedule("late", 500);
+        
+        assertEquals(1, wheel.size());
+        assertEquals(List.of("late"), wheel.advance(1000));
+    }
+    
+    @Test
+    void cascadesEntriesFromEveryLevelAtTheirOwnTick() {
+        long start = 123_457 * TICK;
+        TimingWheel<Long> wheel = new TimingWheel<>(TICK, start);
+        // Distances in ticks that land on every level, on level boundaries and beyond the top level
+        long[] distances = {1, 63, 64, 65, 4095, 4096, 4097, 262_143, 262_144, 300_001,
+                16_777_215, 16_777_216, 16_777_217, 40_000_000};
+        for (long distance : distances) {
+            wheel.schedule(start + distance * TICK, start + distance * TICK);
+        }
+        
+        Map<Long, Long> expiredAt = new HashMap<>();
+        long now = start;
+        // Jump between and onto deadlines, so cascades happen both mid-jump and at the target
+        List<Long> stops = new ArrayList<>();
+        for (long distance : distances) {
+            stops.add(start + (distance - 1) * TICK);
+            stops.add(start + distance * TICK);
+        }
+        stops.sort(null);
+        for (long stop : stops) {
+            if (stop < now) {
+                continue;
+            }
+            now = stop;
+            for (long deadline : wheel.advance(now)) {
+                expiredAt.put(deadline, now);
+            }
+        }
+        
+        assertEquals(distances.length, expiredAt.size());
+        expiredAt.forEach((deadline, at) -> assertEquals(deadline, at));
+        assertEquals(0, wheel.size());
+    }
+    
+    @Test
+    void expiresEveryEntryExactlyOnceWhenAdvancedTickByTick() {
+        TimingWheel<Integer> wheel = new TimingWheel<>(1, 0);
+        int entries = 5000;
+        for (int i = 0; i < entries; i++) {
+            wheel.schedule(i, (i * 7919L) % 20_000 + 1);
+        }
+        
+        Map<Integer, Long> expiredAt = new HashMap<>();
+        for (long now = 1; now <= 20_000; now++) {
+            for (int item : wheel.advance(now)) {
+                assertTrue(expiredAt.put(item, now) == null);
+            }
+        }
+        
+        assertEquals(entries, expiredAt.size());
+        expiredAt.forEach((item, at) -> assertEquals((item * 7919L) % 20_000 + 1, at.longValue()));
+    }
+}
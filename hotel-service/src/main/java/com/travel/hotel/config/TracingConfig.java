@@ -0,0 +1,28 @@
+package com.travel.hotel.config;
+
+import io.micrometer.observation.ObservationPredicate;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+
+@Configuration
+public class TracingConfig {
+    
+    /**
+     * Leaves actuator requests and idle scheduler ticks out of tracing; otherwise they would
+     * quickly push real requests out of the span recorder. Calls made by scheduled jobs are
+     * still traced, each as its own trace.
+     */
+    @Bean
+    public ObservationPredicate ignoreHousekeepingObservations() {
+        return (name, context) -> {
+            if ("tasks.scheduled.execution".equals(name)) {
+                return false;
+            }
+            if (context instanceof ServerRequestObservationContext serverContext) {
+                return !serverContext.getCarrier().getRequestURI().startsWith("/actuator");
+            }
+            return true;
+        };
+    }
+}
@@ -1,14 +1,22 @@
 package com.travel.hotel.controller;
 
 import com.travel.hotel.dto.ApiResponse;
+import com.travel.hotel.dto.CursorPage;
 import com.travel.hotel.dto.HotelDTO;
+import com.travel.hotel.dto.HotelQuoteDTO;
+import com.travel.hotel.dto.HoldBatchRequest;
+import com.travel.hotel.dto.NearbyHotelDTO;
+import com.travel.hotel.dto.RoomHoldDTO;
+import com.travel.hotel.dto.RoomReservationRequest;
 import com.travel.hotel.service.HotelService;
+import com.travel.hotel.service.RoomHoldService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 
@@ -17,7 +25,10 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class HotelController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final HotelService hotelService;
+    private final RoomHoldService roomHoldService;
     
     @PostMapping
     public ResponseEntity<ApiResponse<HotelDTO>> createHotel(@Valid @RequestBody HotelDTO hotelDTO) {
@@ -33,21 +44,81 @@ public class HotelController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<HotelDTO>>> getAllHotels() {
-        List<HotelDTO> hotels = hotelService.getAllHotels();
-        return ResponseEntity.ok(ApiResponse.success("Hotels retrieved successfully", hotels));
+    public ResponseEntity<ApiResponse<List<HotelDTO>>> getAllHotels(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<HotelDTO> hotels = hotelService.getAllHotels(after, limit);
+        return withNextCursor(hotels.getNextCursor())
+                .body(ApiResponse.success("Hotels retrieved successfully", hotels.getItems()));
     }
     
     @GetMapping("/available")
-    public ResponseEntity<ApiResponse<List<HotelDTO>>> getAvailableHotels() {
-        List<HotelDTO> hotels = hotelService.getAvailableHotels();
-        return ResponseEntity.ok(ApiResponse.success("Available hotels retrieved successfully", hotels));
+    public ResponseEntity<ApiResponse<List<HotelDTO>>> getAvailableHotels(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<HotelDTO> hotels = hotelService.getAvailableHotels(after, limit);
+        return withNextCursor(hotels.getNextCursor())
+                .body(ApiResponse.success("Available hotels retrieved successfully", hotels.getItems()));
     }
     
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<HotelDTO>>> searchHotelsByLocation(
-            @RequestParam String location) {
-        List<HotelDTO> hotels = hotelService.searchHotelsByLocation(location);
+            @RequestParam String location,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<HotelDTO> hotels = hotelService.searchHotelsByLocation(location, after, limit);
+        return withNextCursor(hotels.getNextCursor())
+                .body(ApiResponse.success("Hotels searched successfully", hotels.getItems()));
+    }
+    
+    @GetMapping("/catalog")
+    public ResponseEntity<ApiResponse<List<HotelDTO>>> findHotels(
+            @RequestParam(required = false) String location,
+            @RequestParam(defaultValue = "1") int minStars,
+            @RequestParam(defaultValue = "5") int maxStars,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(defaultValue = "1") int rooms,
+            @RequestParam(defaultValue = "price") String sort,
+            @RequestParam(required = false) Integer limit) {
+        List<HotelDTO> hotels = hotelService.findHotels(location, minStars, maxStars, minPrice, maxPrice,
+                amenities != null ? amenities : List.of(), rooms, sort, limit);
+        return ResponseEntity.ok(ApiResponse.success("Hotels searched successfully", hotels));
+    }
+    
+    @GetMapping("/nearby")
+    public ResponseEntity<ApiResponse<List<NearbyHotelDTO>>> findNearbyHotels(
+            @RequestParam double latitude,
+            @RequestParam double longitude,
+            @RequestParam double radiusKm,
+            @RequestParam(defaultValue = "1") int minStars,
+            @RequestParam(defaultValue = "5") int maxStars,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(defaultValue = "1") int rooms,
+            @RequestParam(required = false) Integer limit) {
+        List<NearbyHotelDTO> hotels = hotelService.findNearbyHotels(latitude, longitude, radiusKm, minStars, maxStars,
+                minPrice, maxPrice, amenities != null ? amenities : List.of(), rooms, limit);
+        return ResponseEntity.ok(ApiResponse.success("Hotels searched successfully", hotels));
+    }
+    
+    @GetMapping("/within")
+    public ResponseEntity<ApiResponse<List<NearbyHotelDTO>>> findHotelsWithin(
+            @RequestParam double south,
+            @RequestParam double west,
+            @RequestParam double north,
+            @RequestParam double east,
+            @RequestParam(defaultValue = "1") int minStars,
+            @RequestParam(defaultValue = "5") int maxStars,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) List<String> amenities,
+            @RequestParam(defaultValue = "1") int rooms,
+            @RequestParam(required = false) Integer limit) {
+        List<NearbyHotelDTO> hotels = hotelService.findHotelsWithin(south, west, north, east, minStars, maxStars,
+                minPrice, maxPrice, amenities != null ? amenities : List.of(), rooms, limit);
         return ResponseEntity.ok(ApiResponse.success("Hotels searched successfully", hotels));
     }
     
@@ -73,10 +144,67 @@ public class HotelController {
                         Map.of("available", available, "hotelId", id != null)));
     }
     
+    @GetMapping("/quotes")
+    public ResponseEntity<ApiResponse<List<HotelQuoteDTO>>> getHotelQuotes(@RequestParam List<Long> ids) {
+        List<HotelQuoteDTO> quotes = hotelService.getHotelQuotes(ids);
+        return ResponseEntity.ok(ApiResponse.success("Hotel quotes retrieved successfully", quotes));
+    }
+    
+    @GetMapping("/{id}/quote")
+    public ResponseEntity<ApiResponse<HotelQuoteDTO>> getHotelQuote(@PathVariable Long id) {
+        HotelQuoteDTO quote = hotelService.getHotelQuote(id);
+        return ResponseEntity.ok(ApiResponse.success("Hotel quote retrieved successfully", quote));
+    }
+    
+    @PostMapping("/reserve")
+    public ResponseEntity<ApiResponse<Void>> reserveRooms(@Valid @RequestBody RoomReservationRequest request) {
+        int reserved = hotelService.reserveRooms(request.getItems());
+        return ResponseEntity.ok(ApiResponse.success(reserved + " rooms reserved successfully", null));
+    }
+    
+    @PostMapping("/holds")
+    public ResponseEntity<ApiResponse<List<RoomHoldDTO>>> createRoomHolds(@Valid @RequestBody RoomReservationRequest request) {
+        List<RoomHoldDTO> holds = roomHoldService.createHolds(request.getItems());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Room holds created successfully", holds));
+    }
+    
+    @PostMapping("/holds/confirm")
+    public ResponseEntity<ApiResponse<List<RoomHoldDTO>>> confirmRoomHolds(@Valid @RequestBody HoldBatchRequest request) {
+        List<RoomHoldDTO> holds = roomHoldService.confirmHolds(request.getHoldIds());
+        return ResponseEntity.ok(ApiResponse.success("Room holds confirmed successfully", holds));
+    }
+    
+    @PostMapping("/holds/release")
+    public ResponseEntity<ApiResponse<List<RoomHoldDTO>>> releaseRoomHolds(@Valid @RequestBody HoldBatchRequest request) {
+        List<RoomHoldDTO> holds = roomHoldService.releaseHolds(request.getHoldIds());
+        return ResponseEntity.ok(ApiResponse.success("Room holds released successfully", holds));
+    }
+    
     @PostMapping("/{id}/reserve")
-    public ResponseEntity<ApiResponse<Void>> reserveRoom(@PathVariable Long id) {
-        hotelService.reserveRoom(id);
-        return ResponseEntity.ok(ApiResponse.success("Room reserved successfully", null));
+    public ResponseEntity<ApiResponse<Void>> reserveRoom(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int quantity) {
+        hotelService.reserveRooms(id, quantity);
+        String message = quantity == 1 ? "Room reserved successfully" : quantity + " rooms reserved successfully";
+        return ResponseEntity.ok(ApiResponse.success(message, null));
+    }
+    
+    @PostMapping("/{id}/release")
+    public ResponseEntity<ApiResponse<Void>> releaseRooms(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "1") int quantity) {
+        hotelService.releaseRooms(id, quantity);
+        String message = quantity == 1 ? "Room released successfully" : quantity + " rooms released successfully";
+        return ResponseEntity.ok(ApiResponse.success(message, null));
+    }
+    
+    private ResponseEntity.BodyBuilder withNextCursor(Long nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+        }
+        return response;
     }
 }
 
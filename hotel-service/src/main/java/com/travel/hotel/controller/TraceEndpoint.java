@@ -0,0 +1,37 @@
+package com.travel.hotel.controller;
+
+import com.travel.hotel.service.SpanRecorder;
+import com.travel.hotel.service.SpanRecorder.RecordedSpan;
+import com.travel.hotel.service.SpanRecorder.TraceSummary;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Serves recently recorded traces at {@code /actuator/traces} (newest first) and the spans
+ * of one trace at {@code /actuator/traces/{traceId}}.
+ */
+@Component
+@Endpoint(id = "traces")
+@RequiredArgsConstructor
+public class TraceEndpoint {
+    
+    private static final int DEFAULT_LIMIT = 50;
+    
+    private final SpanRecorder spanRecorder;
+    
+    @ReadOperation
+    public List<TraceSummary> traces(@Nullable Integer limit) {
+        return spanRecorder.recentTraces(limit != null ? Math.max(1, limit) : DEFAULT_LIMIT);
+    }
+    
+    @ReadOperation
+    public List<RecordedSpan> trace(@Selector String traceId) {
+        return spanRecorder.getTrace(traceId);
+    }
+}
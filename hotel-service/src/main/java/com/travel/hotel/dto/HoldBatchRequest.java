@@ -0,0 +1,19 @@
+package com.travel.hotel.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldBatchRequest {
+    
+    @NotEmpty(message = "At least one hold ID is required")
+    @Size(max = 500, message = "At most 500 holds can be updated at once")
+    private List<String> holdIds;
+}
@@ -0,0 +1,15 @@
+package com.travel.hotel.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbyHotelDTO {
+    
+    private HotelDTO hotel;
+    
+    private Double distanceKm;
+}
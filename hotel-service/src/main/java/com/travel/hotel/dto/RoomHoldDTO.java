@@ -0,0 +1,19 @@
+package com.travel.hotel.dto;
+
+import com.travel.hotel.entity.RoomHold.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomHoldDTO {
+    private String holdId;
+    private Long hotelId;
+    private Integer quantity;
+    private HoldStatus status;
+    private LocalDateTime expiresAt;
+}
@@ -9,7 +9,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "hotels")
+@Table(name = "hotels",
+        indexes = @Index(name = "idx_hotels_location_id", columnList = "location, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,9 +44,17 @@ public class Hotel {
     @Column(nullable = false)
     private String amenities;
     
+    // Optional, but always set together
+    private Double latitude;
+    
+    private Double longitude;
+    
     @Column(nullable = false)
     private Boolean available = true;
     
+    @Version
+    private Long version;
+    
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
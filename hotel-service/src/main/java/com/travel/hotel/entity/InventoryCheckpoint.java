@@ -0,0 +1,25 @@
+package com.travel.hotel.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The last inventory journal segment whose deltas were written back, saved in the same
+ * transaction as the write-back so a restart never applies a segment twice.
+ */
+@Entity
+@Table(name = "inventory_checkpoints")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryCheckpoint {
+    
+    @Id
+    @Column(length = 32)
+    private String journal;
+    
+    @Column(nullable = false)
+    private Long segment;
+}
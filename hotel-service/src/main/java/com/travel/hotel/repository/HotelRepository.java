@@ -1,14 +1,51 @@
 package com.travel.hotel.repository;
 
 import com.travel.hotel.entity.Hotel;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
 public interface HotelRepository extends JpaRepository<Hotel, Long> {
-    List<Hotel> findByLocation(String location);
-    List<Hotel> findByAvailableTrue();
+    List<Hotel> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<Hotel> findByAvailableTrueAndIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<Hotel> findByLocationAndIdGreaterThanOrderByIdAsc(String location, Long id, Pageable pageable);
+    
+    /**
+     * Takes rooms in a single statement so the row lock is held only for the update itself.
+     * Returns 0 when the hotel does not exist or has fewer than {@code quantity} rooms left.
+     */
+    @Modifying
+    @Query("update Hotel h set h.availableRooms = h.availableRooms - :quantity, " +
+            "h.available = case when h.availableRooms - :quantity > 0 then true else false end, " +
+            "h.version = h.version + 1 " +
+            "where h.id = :id and h.availableRooms >= :quantity")
+    int reserveRooms(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    /**
+     * Returns rooms in a single statement, never beyond {@code totalRooms}.
+     */
+    @Modifying
+    @Query("update Hotel h set h.availableRooms = case when h.availableRooms + :quantity > h.totalRooms " +
+            "then h.totalRooms else h.availableRooms + :quantity end, " +
+            "h.available = case when h.totalRooms > 0 then true else false end, " +
+            "h.version = h.version + 1 " +
+            "where h.id = :id")
+    int releaseRooms(@Param("id") Long id, @Param("quantity") int quantity);
+    
+    /**
+     * Applies an aggregated room delta written back from memory, kept within 0 and capacity.
+     */
+    @Modifying
+    @Query("update Hotel h set h.availableRooms = case when h.availableRooms + :delta < 0 then 0 " +
+            "when h.availableRooms + :delta > h.totalRooms then h.totalRooms else h.availableRooms + :delta end, " +
+            "h.available = case when h.availableRooms + :delta > 0 then true else false end, " +
+            "h.version = h.version + 1 " +
+            "where h.id = :id")
+    int adjustRooms(@Param("id") Long id, @Param("delta") int delta);
 }
-
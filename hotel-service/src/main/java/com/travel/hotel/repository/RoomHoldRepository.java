@@ -0,0 +1,24 @@
+package com.travel.hotel.repository;
+
+import com.travel.hotel.entity.RoomHold;
+import com.travel.hotel.entity.RoomHold.HoldStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RoomHoldRepository extends JpaRepository<RoomHold, String> {
+    
+    // Locked in id order, so concurrent confirmations, releases and expiries never deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<RoomHold> findByIdInOrderByIdAsc(Collection<String> ids);
+    
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<RoomHold> findByIdInAndStatusOrderByIdAsc(Collection<String> ids, HoldStatus status);
+    
+    List<RoomHold> findByStatus(HoldStatus status);
+}
@@ -0,0 +1,517 @@
+package com.travel.hotel.service;
+
+import com.travel.hotel.entity.Hotel;
+import com.travel.hotel.repository.HotelRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.DoublePredicate;
+import java.util.stream.Collectors;
+
+/**
+ * Columnar in-memory catalog of the fields hotels are filtered on. Each hotel occupies one slot
+ * across primitive columns (star rating, price in cents, rooms left), and locations, star ratings
+ * and amenities are also kept as one bitset of slots per value. A search intersects the bitsets
+ * of the requested location, ratings and amenities and only then scans the price and room columns
+ * of the slots that are left; the matching ids are returned, so callers load just one page.
+ * <p>
+ * Hotels with coordinates are also bucketed into a grid of fixed-size latitude/longitude cells,
+ * so radius and bounding-box searches only look at the cells overlapping the area (or, for very
+ * large areas, at the non-empty cells) before checking exact distances.
+ * <p>
+ * Amenities are parsed from the comma-separated free text, ignoring case. Hotels are loaded at
+ * startup and kept in step with creates, updates, deletes and room changes once their
+ * transaction commits. Creates, updates and deletes take the write lock; room changes only
+ * update their slot atomically under the read lock, so reservations neither queue behind each
+ * other nor block searches.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotelCatalog {
+    
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_STARS = 5;
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    
+    private final HotelRepository hotelRepository;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    @Value("${hotel.geo.cell-degrees:0.1}")
+    private double cellDegrees;
+    
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int[] locations = new int[INITIAL_CAPACITY];
+    private byte[] stars = new byte[INITIAL_CAPACITY];
+    private long[] prices = new long[INITIAL_CAPACITY];
+    private AtomicIntegerArray rooms = new AtomicIntegerArray(INITIAL_CAPACITY);
+    private int[] totalRooms = new int[INITIAL_CAPACITY];
+    private double[] latitudes = new double[INITIAL_CAPACITY];
+    private double[] longitudes = new double[INITIAL_CAPACITY];
+    
+    private final BitSet live = new BitSet();
+    private final Map<Long, Integer> slots = new HashMap<>();
+    private final Deque<Integer> freeSlots = new ArrayDeque<>();
+    private int nextSlot;
+    
+    private final Map<String, Integer> locationIds = new HashMap<>();
+    private final List<BitSet> byLocation = new ArrayList<>();
+    private final Map<String, Integer> amenityIds = new HashMap<>();
+    private final List<BitSet> byAmenity = new ArrayList<>();
+    private final BitSet[] byStars = new BitSet[MAX_STARS + 1];
+    private final BitSet located = new BitSet();
+    private final Map<Long, Cell> cells = new HashMap<>();
+    
+    public enum SortOrder {
+        PRICE, RATING
+    }
+    
+    @PostConstruct
+    void load() {
+        for (int rating = 0; rating <= MAX_STARS; rating++) {
+            byStars[rating] = new BitSet();
+        }
+        long after = 0;
+        List<Hotel> page;
+        do {
+            page = hotelRepository.findByIdGreaterThanOrderByIdAsc(after, PageRequest.of(0, LOAD_PAGE_SIZE));
+            for (Hotel hotel : page) {
+                write(Row.of(hotel));
+                after = hotel.getId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        log.info("Catalogued {} hotels in {} locations with {} distinct amenities, {} of them in {} grid cells",
+                slots.size(), locationIds.size(), amenityIds.size(), located.cardinality(), cells.size());
+    }
+    
+    /**
+     * Adds or replaces a hotel once the surrounding transaction commits.
+     */
+    public void put(Hotel hotel) {
+        Row row = Row.of(hotel);
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                write(row);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+    
+    public void remove(Long hotelId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Integer slot = slots.remove(hotelId);
+                if (slot != null) {
+                    clear(slot);
+                    live.clear(slot);
+                    freeSlots.push(slot);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+    
+    /**
+     * Applies a room change once the surrounding transaction commits, kept within 0 and capacity.
+     */
+    public void adjustRooms(Long hotelId, int delta) {
+        afterCommit(() -> {
+            // The read lock only keeps the slot and columns from being moved or reused meanwhile
+            lock.readLock().lock();
+            try {
+                Integer slot = slots.get(hotelId);
+                if (slot != null) {
+                    int capacity = totalRooms[slot];
+                    rooms.getAndUpdate(slot, left -> Math.max(0, Math.min(left + delta, capacity)));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        });
+    }
+    
+    /**
+     * Ids of the hotels matching every given filter, in the given order. A null location or
+     * price bound is not filtered on; {@code minRooms} of 0 includes sold-out hotels.
+     */
+    public List<Long> search(String location, int minStars, int maxStars, BigDecimal minPrice, BigDecimal maxPrice,
+                             Collection<String> amenities, int minRooms, SortOrder sort, int limit) {
+        long minCents = minCents(minPrice);
+        long maxCents = maxCents(maxPrice);
+        
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidates(location, minStars, maxStars, amenities);
+            if (candidates == null) {
+                return List.of();
+            }
+            
+            int[] matches = new int[candidates.cardinality()];
+            int count = 0;
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                if (prices[slot] >= minCents && prices[slot] <= maxCents && rooms.get(slot) >= minRooms) {
+                    matches[count++] = slot;
+                }
+            }
+            
+            Comparator<Integer> order = sort == SortOrder.RATING
+                    ? Comparator.<Integer>comparingInt(slot -> -stars[slot]).thenComparingLong(slot -> prices[slot])
+                    : Comparator.<Integer>comparingLong(slot -> prices[slot]).thenComparingInt(slot -> -stars[slot]);
+            return Arrays.stream(matches, 0, count).boxed()
+                    .sorted(order.thenComparingLong(slot -> ids[slot]))
+                    .limit(limit)
+                    .map(slot -> ids[slot])
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Hotels within {@code radiusKm} of a point that match the other filters, nearest first.
+     * Distances are great-circle distances.
+     */
+    public List<Match> nearby(double latitude, double longitude, double radiusKm, int minStars, int maxStars,
+                              BigDecimal minPrice, BigDecimal maxPrice, Collection<String> amenities, int minRooms, int limit) {
+        double angle = radiusKm / EARTH_RADIUS_KM;
+        double latitudeSpan = Math.toDegrees(angle);
+        double south = latitude - latitudeSpan;
+        double north = latitude + latitudeSpan;
+        // Widest longitude span of the circle; it covers every longitude when it reaches a pole
+        double west = -180;
+        double east = 180;
+        double sine = Math.sin(angle) / Math.cos(Math.toRadians(latitude));
+        if (south > -90 && north < 90 && sine < 1) {
+            double longitudeSpan = Math.toDegrees(Math.asin(sine));
+            west = wrap(longitude - longitudeSpan);
+            east = wrap(longitude + longitudeSpan);
+        }
+        return find(Math.max(south, -90), west, Math.min(north, 90), east, latitude, longitude,
+                distance -> distance <= radiusKm, minStars, maxStars, minPrice, maxPrice, amenities, minRooms, limit);
+    }
+    
+    /**
+     * Hotels inside a bounding box that match the other filters, nearest to the box's centre
+     * first. A box whose west edge is east of its east edge crosses the antimeridian.
+     */
+    public List<Match> within(double south, double west, double north, double east, int minStars, int maxStars,
+                              BigDecimal minPrice, BigDecimal maxPrice, Collection<String> amenities, int minRooms, int limit) {
+        double width = west <= east ? east - west : east - west + 360;
+        return find(south, west, north, east, (south + north) / 2, wrap(west + width / 2),
+                distance -> true, minStars, maxStars, minPrice, maxPrice, amenities, minRooms, limit);
+    }
+    
+    private List<Match> find(double south, double west, double north, double east, double latitude, double longitude,
+                             DoublePredicate withinDistance, int minStars, int maxStars, BigDecimal minPrice,
+                             BigDecimal maxPrice, Collection<String> amenities, int minRooms, int limit) {
+        long minCents = minCents(minPrice);
+        long maxCents = maxCents(maxPrice);
+        
+        lock.readLock().lock();
+        try {
+            BitSet candidates = candidates(null, minStars, maxStars, amenities);
+            if (candidates == null) {
+                return List.of();
+            }
+            
+            List<Match> matches = new ArrayList<>();
+            for (Cell cell : cellsIn(south, west, north, east)) {
+                for (int i = 0; i < cell.size; i++) {
+                    int slot = cell.slots[i];
+                    if (!candidates.get(slot) || prices[slot] < minCents || prices[slot] > maxCents || rooms.get(slot) < minRooms
+                            || latitudes[slot] < south || latitudes[slot] > north
+                            || !inLongitudes(longitudes[slot], west, east)) {
+                        continue;
+                    }
+                    double distance = distanceKm(latitude, longitude, latitudes[slot], longitudes[slot]);
+                    if (withinDistance.test(distance)) {
+                        matches.add(new Match(ids[slot], distance));
+                    }
+                }
+            }
+            return matches.stream()
+                    .sorted(Comparator.comparingDouble(Match::getDistanceKm).thenComparingLong(Match::getHotelId))
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    /**
+     * Live hotels in the given location with a rating in range and every amenity, or
+     * {@code null} when an unknown location or amenity rules out every hotel.
+     */
+    private BitSet candidates(String location, int minStars, int maxStars, Collection<String> amenities) {
+        BitSet candidates = (BitSet) live.clone();
+        if (location != null) {
+            Integer locationId = locationIds.get(location);
+            if (locationId == null) {
+                return null;
+            }
+            candidates.and(byLocation.get(locationId));
+        }
+        for (String amenity : amenities) {
+            Integer amenityId = amenityIds.get(normalize(amenity));
+            if (amenityId == null) {
+                return null;
+            }
+            candidates.and(byAmenity.get(amenityId));
+        }
+        if (minStars > 1 || maxStars < MAX_STARS) {
+            BitSet rated = new BitSet();
+            for (int rating = minStars; rating <= maxStars; rating++) {
+                rated.or(byStars[rating]);
+            }
+            candidates.and(rated);
+        }
+        return candidates;
+    }
+    
+    // The grid cells overlapping the box, or all occupied cells when there are fewer of those
+    private Collection<Cell> cellsIn(double south, double west, double north, double east) {
+        int firstRow = row(south);
+        int lastRow = row(north);
+        int firstColumn = column(west);
+        int lastColumn = column(east);
+        int columns = column(180) + 1;
+        long spanned = (long) (lastRow - firstRow + 1)
+                * (firstColumn <= lastColumn ? lastColumn - firstColumn + 1 : columns - firstColumn + lastColumn + 1);
+        if (spanned > cells.size()) {
+            return cells.values();
+        }
+        List<Cell> overlapping = new ArrayList<>();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; ; column = (column + 1) % columns) {
+                Cell cell = cells.get(cellKey(row, column));
+                if (cell != null) {
+                    overlapping.add(cell);
+                }
+                if (column == lastColumn) {
+                    break;
+                }
+            }
+        }
+        return overlapping;
+    }
+    
+    // Callers hold the write lock, apart from the initial load
+    private void write(Row row) {
+        Integer slot = slots.get(row.id);
+        if (slot != null) {
+            clear(slot);
+        } else {
+            slot = freeSlots.isEmpty() ? nextSlot++ : freeSlots.pop();
+            ensureCapacity(slot + 1);
+            slots.put(row.id, slot);
+            live.set(slot);
+        }
+        ids[slot] = row.id;
+        locations[slot] = locationIds.computeIfAbsent(row.location, key -> newBitSet(byLocation));
+        stars[slot] = (byte) row.stars;
+        prices[slot] = row.priceCents;
+        rooms.set(slot, row.rooms);
+        totalRooms[slot] = row.totalRooms;
+        if (row.latitude != null) {
+            latitudes[slot] = row.latitude;
+            longitudes[slot] = row.longitude;
+            located.set(slot);
+            cells.computeIfAbsent(cellKey(row(row.latitude), column(row.longitude)), key -> new Cell()).add(slot);
+        }
+        
+        byLocation.get(locations[slot]).set(slot);
+        byStars[row.stars].set(slot);
+        for (String amenity : row.amenities) {
+            byAmenity.get(amenityIds.computeIfAbsent(amenity, key -> newBitSet(byAmenity))).set(slot);
+        }
+    }
+    
+    private void clear(int slot) {
+        byLocation.get(locations[slot]).clear(slot);
+        byStars[stars[slot]].clear(slot);
+        // Few enough distinct amenities that clearing every one beats keeping a list per hotel
+        byAmenity.forEach(hotels -> hotels.clear(slot));
+        if (located.get(slot)) {
+            long key = cellKey(row(latitudes[slot]), column(longitudes[slot]));
+            Cell cell = cells.get(key);
+            cell.remove(slot);
+            if (cell.size == 0) {
+                cells.remove(key);
+            }
+            located.clear(slot);
+        }
+    }
+    
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+    
+    private int column(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellDegrees);
+    }
+    
+    private static long cellKey(int row, int column) {
+        return (long) row << 32 | column;
+    }
+    
+    private int newBitSet(List<BitSet> bitSets) {
+        bitSets.add(new BitSet());
+        return bitSets.size() - 1;
+    }
+    
+    private void ensureCapacity(int size) {
+        if (size <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(size, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        locations = Arrays.copyOf(locations, capacity);
+        stars = Arrays.copyOf(stars, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        AtomicIntegerArray grown = new AtomicIntegerArray(capacity);
+        for (int slot = 0; slot < rooms.length(); slot++) {
+            grown.set(slot, rooms.get(slot));
+        }
+        rooms = grown;
+        totalRooms = Arrays.copyOf(totalRooms, capacity);
+        latitudes = Arrays.copyOf(latitudes, capacity);
+        longitudes = Arrays.copyOf(longitudes, capacity);
+    }
+    
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+    
+    static String normalize(String amenity) {
+        return amenity.trim().toLowerCase(Locale.ROOT);
+    }
+    
+    private static long minCents(BigDecimal minPrice) {
+        return minPrice != null ? minPrice.movePointRight(2).setScale(0, RoundingMode.CEILING).longValue() : Long.MIN_VALUE;
+    }
+    
+    private static long maxCents(BigDecimal maxPrice) {
+        return maxPrice != null ? maxPrice.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue() : Long.MAX_VALUE;
+    }
+    
+    private static boolean inLongitudes(double longitude, double west, double east) {
+        return west <= east ? longitude >= west && longitude <= east : longitude >= west || longitude <= east;
+    }
+    
+    private static double wrap(double longitude) {
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        return longitude > 180 ? longitude - 360 : longitude;
+    }
+    
+    // Haversine formula
+    private static double distanceKm(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double latitudeDelta = Math.toRadians(toLatitude - fromLatitude);
+        double longitudeDelta = Math.toRadians(toLongitude - fromLongitude);
+        double a = Math.pow(Math.sin(latitudeDelta / 2), 2) + Math.cos(Math.toRadians(fromLatitude))
+                * Math.cos(Math.toRadians(toLatitude)) * Math.pow(Math.sin(longitudeDelta / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+    
+    /**
+     * A hotel found by a geo search and its distance from the point searched around.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Match {
+        private final long hotelId;
+        private final double distanceKm;
+    }
+    
+    /**
+     * The slots of the located hotels in one grid cell.
+     */
+    private static class Cell {
+        private int[] slots = new int[4];
+        private int size;
+        
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+        
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    slots[i] = slots[--size];
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * One hotel's catalogued fields, captured when it is saved.
+     */
+    @RequiredArgsConstructor
+    private static class Row {
+        private final long id;
+        private final String location;
+        private final int stars;
+        private final long priceCents;
+        private final int rooms;
+        private final int totalRooms;
+        private final List<String> amenities;
+        // Both set or both null
+        private final Double latitude;
+        private final Double longitude;
+        
+        static Row of(Hotel hotel) {
+            List<String> amenities = Arrays.stream(hotel.getAmenities().split(","))
+                    .map(HotelCatalog::normalize)
+                    .filter(amenity -> !amenity.isEmpty())
+                    .distinct()
+                    .collect(Collectors.toList());
+            return new Row(hotel.getId(), hotel.getLocation(), hotel.getStarRating(),
+                    hotel.getPricePerNight().movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue(),
+                    hotel.getAvailableRooms(), hotel.getTotalRooms(), amenities,
+                    hotel.getLatitude(), hotel.getLongitude());
+        }
+    }
+}
@@ -1,28 +1,47 @@
 package com.travel.hotel.service;
 
+import com.travel.hotel.dto.CursorPage;
 import com.travel.hotel.dto.HotelDTO;
+import com.travel.hotel.dto.HotelQuoteDTO;
+import com.travel.hotel.dto.NearbyHotelDTO;
+import com.travel.hotel.dto.RoomReservation;
 import com.travel.hotel.entity.Hotel;
 import com.travel.hotel.exception.ResourceNotFoundException;
 import com.travel.hotel.exception.InsufficientRoomsException;
 import com.travel.hotel.repository.HotelRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class HotelService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    
     private final HotelRepository hotelRepository;
+    private final RoomInventory roomInventory;
+    private final HotelCatalog hotelCatalog;
     
     @Transactional
     public HotelDTO createHotel(HotelDTO hotelDTO) {
+        checkCoordinates(hotelDTO);
         Hotel hotel = mapToEntity(hotelDTO);
         hotel.setAvailable(hotel.getAvailableRooms() > 0);
         Hotel savedHotel = hotelRepository.save(hotel);
+        hotelCatalog.put(savedHotel);
         return mapToDTO(savedHotel);
     }
     
@@ -32,26 +51,119 @@ public class HotelService {
         return mapToDTO(hotel);
     }
     
-    public List<HotelDTO> getAllHotels() {
-        return hotelRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<HotelDTO> getAllHotels(Long after, Integer limit) {
+        return toPage(hotelRepository.findByIdGreaterThanOrderByIdAsc(cursor(after), keysetPage(limit)), limit);
+    }
+    
+    public CursorPage<HotelDTO> getAvailableHotels(Long after, Integer limit) {
+        return toPage(hotelRepository.findByAvailableTrueAndIdGreaterThanOrderByIdAsc(cursor(after), keysetPage(limit)), limit);
     }
     
-    public List<HotelDTO> getAvailableHotels() {
-        return hotelRepository.findByAvailableTrue().stream()
+    public CursorPage<HotelDTO> searchHotelsByLocation(String location, Long after, Integer limit) {
+        return toPage(hotelRepository.findByLocationAndIdGreaterThanOrderByIdAsc(location, cursor(after), keysetPage(limit)), limit);
+    }
+    
+    /**
+     * Hotels matching every given filter, answered from the {@link HotelCatalog} so only the
+     * returned page is read from the database. Star ratings and prices are inclusive ranges and
+     * a hotel has to offer all of the requested amenities.
+     */
+    public List<HotelDTO> findHotels(String location, int minStars, int maxStars, BigDecimal minPrice, BigDecimal maxPrice,
+                                     Collection<String> amenities, int rooms, String sort, Integer limit) {
+        checkFilters(minStars, maxStars, minPrice, maxPrice, rooms);
+        HotelCatalog.SortOrder order;
+        try {
+            order = HotelCatalog.SortOrder.valueOf(sort.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Sort must be one of price or rating");
+        }
+        List<Long> ids = hotelCatalog.search(location, minStars, maxStars, minPrice, maxPrice,
+                amenities, rooms, order, pageSize(limit));
+        Map<Long, Hotel> hotels = hotelsById(ids);
+        return ids.stream()
+                .map(hotels::get)
+                .filter(Objects::nonNull)
                 .map(this::mapToDTO)
                 .collect(Collectors.toList());
     }
     
-    public List<HotelDTO> searchHotelsByLocation(String location) {
-        return hotelRepository.findByLocation(location).stream()
-                .map(this::mapToDTO)
+    /**
+     * Hotels within {@code radiusKm} of a point that match the other filters, nearest first.
+     * Hotels without coordinates are never included.
+     */
+    public List<NearbyHotelDTO> findNearbyHotels(double latitude, double longitude, double radiusKm, int minStars, int maxStars,
+                                                 BigDecimal minPrice, BigDecimal maxPrice, Collection<String> amenities,
+                                                 int rooms, Integer limit) {
+        checkPoint(latitude, longitude);
+        if (!(radiusKm > 0)) {
+            throw new IllegalArgumentException("Radius must be greater than 0");
+        }
+        checkFilters(minStars, maxStars, minPrice, maxPrice, rooms);
+        return toNearby(hotelCatalog.nearby(latitude, longitude, radiusKm, minStars, maxStars, minPrice, maxPrice,
+                amenities, rooms, pageSize(limit)));
+    }
+    
+    /**
+     * Hotels inside a bounding box that match the other filters, nearest to the box's centre
+     * first. A box with {@code west} greater than {@code east} crosses the antimeridian.
+     */
+    public List<NearbyHotelDTO> findHotelsWithin(double south, double west, double north, double east, int minStars, int maxStars,
+                                                 BigDecimal minPrice, BigDecimal maxPrice, Collection<String> amenities,
+                                                 int rooms, Integer limit) {
+        checkPoint(south, west);
+        checkPoint(north, east);
+        if (south > north) {
+            throw new IllegalArgumentException("south cannot be above north");
+        }
+        checkFilters(minStars, maxStars, minPrice, maxPrice, rooms);
+        return toNearby(hotelCatalog.within(south, west, north, east, minStars, maxStars, minPrice, maxPrice,
+                amenities, rooms, pageSize(limit)));
+    }
+    
+    private List<NearbyHotelDTO> toNearby(List<HotelCatalog.Match> matches) {
+        Map<Long, Hotel> hotels = hotelsById(matches.stream().map(HotelCatalog.Match::getHotelId).collect(Collectors.toList()));
+        return matches.stream()
+                .filter(match -> hotels.containsKey(match.getHotelId()))
+                .map(match -> new NearbyHotelDTO(mapToDTO(hotels.get(match.getHotelId())),
+                        Math.round(match.getDistanceKm() * 1000) / 1000.0))
                 .collect(Collectors.toList());
     }
     
+    // Loaded in one query for callers to put back in the catalog's order; a hotel deleted meanwhile is missing
+    private Map<Long, Hotel> hotelsById(List<Long> ids) {
+        return hotelRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Hotel::getId, Function.identity()));
+    }
+    
+    private void checkFilters(int minStars, int maxStars, BigDecimal minPrice, BigDecimal maxPrice, int rooms) {
+        if (minStars < 1 || maxStars > 5 || minStars > maxStars) {
+            throw new IllegalArgumentException("Star ratings must be between 1 and 5, minStars no higher than maxStars");
+        }
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be above maxPrice");
+        }
+        if (rooms < 0) {
+            throw new IllegalArgumentException("Rooms cannot be negative");
+        }
+    }
+    
+    private void checkPoint(double latitude, double longitude) {
+        if (!(latitude >= -90 && latitude <= 90) || !(longitude >= -180 && longitude <= 180)) {
+            throw new IllegalArgumentException("Latitudes must be between -90 and 90 and longitudes between -180 and 180");
+        }
+    }
+    
+    private void checkCoordinates(HotelDTO hotelDTO) {
+        if ((hotelDTO.getLatitude() == null) != (hotelDTO.getLongitude() == null)) {
+            throw new IllegalArgumentException("Latitude and longitude must be given together");
+        }
+    }
+    
     @Transactional
     public HotelDTO updateHotel(Long id, HotelDTO hotelDTO) {
+        checkCoordinates(hotelDTO);
+        // Before the read, as writing back pending room changes bumps the row version
+        roomInventory.evict(id);
         Hotel hotel = hotelRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with id: " + id));
         
@@ -63,9 +175,12 @@ public class HotelService {
         hotel.setAvailableRooms(hotelDTO.getAvailableRooms());
         hotel.setTotalRooms(hotelDTO.getTotalRooms());
         hotel.setAmenities(hotelDTO.getAmenities());
+        hotel.setLatitude(hotelDTO.getLatitude());
+        hotel.setLongitude(hotelDTO.getLongitude());
         hotel.setAvailable(hotelDTO.getAvailableRooms() > 0);
         
         Hotel updatedHotel = hotelRepository.save(hotel);
+        hotelCatalog.put(updatedHotel);
         return mapToDTO(updatedHotel);
     }
     
@@ -74,11 +189,45 @@ public class HotelService {
         if (!hotelRepository.existsById(id)) {
             throw new ResourceNotFoundException("Hotel not found with id: " + id);
         }
+        roomInventory.evict(id);
         hotelRepository.deleteById(id);
+        hotelCatalog.remove(id);
+    }
+    
+    public HotelQuoteDTO getHotelQuote(Long hotelId) {
+        Hotel hotel = hotelRepository.findById(hotelId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with id: " + hotelId));
+        return toQuote(hotel);
+    }
+    
+    /**
+     * Quotes for several hotels in one query. Unknown ids are left out of the result rather
+     * than failing the whole lookup.
+     */
+    public List<HotelQuoteDTO> getHotelQuotes(List<Long> hotelIds) {
+        if (hotelIds.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " hotel ids can be quoted at once");
+        }
+        return hotelRepository.findAllById(hotelIds).stream()
+                .map(this::toQuote)
+                .collect(Collectors.toList());
+    }
+    
+    private HotelQuoteDTO toQuote(Hotel hotel) {
+        return new HotelQuoteDTO(
+                hotel.getId(),
+                hotel.getPricePerNight(),
+                roomInventory.availableRooms(hotel),
+                roomInventory.isAvailable(hotel) && roomInventory.availableRooms(hotel) > 0,
+                hotel.getVersion()
+        );
     }
     
     @Transactional
     public boolean checkAvailability(Long hotelId) {
+        if (roomInventory.isEnabled()) {
+            return roomInventory.availableRooms(hotelId) > 0;
+        }
         Hotel hotel = hotelRepository.findById(hotelId)
                 .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with id: " + hotelId));
         return hotel.getAvailable() && hotel.getAvailableRooms() > 0;
@@ -86,16 +235,91 @@ public class HotelService {
     
     @Transactional
     public void reserveRoom(Long hotelId) {
-        Hotel hotel = hotelRepository.findById(hotelId)
-                .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with id: " + hotelId));
+        reserveRooms(hotelId, 1);
+    }
+    
+    @Transactional
+    public void reserveRooms(Long hotelId, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
         
-        if (hotel.getAvailableRooms() <= 0) {
-            throw new InsufficientRoomsException("No rooms available for hotel: " + hotelId);
+        if (roomInventory.isEnabled()) {
+            roomInventory.reserve(hotelId, quantity);
+            hotelCatalog.adjustRooms(hotelId, -quantity);
+            return;
         }
         
-        hotel.setAvailableRooms(hotel.getAvailableRooms() - 1);
-        hotel.setAvailable(hotel.getAvailableRooms() > 0);
-        hotelRepository.save(hotel);
+        if (hotelRepository.reserveRooms(hotelId, quantity) == 0) {
+            // Nothing was updated: work out why only on the failure path
+            Hotel hotel = hotelRepository.findById(hotelId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with id: " + hotelId));
+            throw new InsufficientRoomsException("Not enough rooms available for hotel: " + hotelId
+                    + " (requested " + quantity + ", available " + hotel.getAvailableRooms() + ")");
+        }
+        hotelCatalog.adjustRooms(hotelId, -quantity);
+    }
+    
+    /**
+     * Reserves rooms on several hotels at once, all or nothing: the first hotel that cannot cover
+     * its quantity rolls back the ones already taken. Quantities for the same hotel are added up,
+     * and hotels are updated in id order so concurrent calls lock rows in the same order.
+     * Returns the number of rooms reserved.
+     */
+    @Transactional
+    public int reserveRooms(List<RoomReservation> reservations) {
+        if (reservations.size() > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("At most " + MAX_PAGE_SIZE + " hotels can be reserved at once");
+        }
+        Map<Long, Integer> quantities = new TreeMap<>();
+        reservations.forEach(item -> quantities.merge(item.getHotelId(), item.getQuantity(), Integer::sum));
+        
+        if (roomInventory.isEnabled()) {
+            roomInventory.reserveAll(quantities);
+            quantities.forEach((hotelId, quantity) -> hotelCatalog.adjustRooms(hotelId, -quantity));
+        } else {
+            quantities.forEach(this::reserveRooms);
+        }
+        return quantities.values().stream().mapToInt(Integer::intValue).sum();
+    }
+    
+    @Transactional
+    public void releaseRooms(Long hotelId, int quantity) {
+        if (quantity < 1) {
+            throw new IllegalArgumentException("Quantity must be at least 1");
+        }
+        
+        if (roomInventory.isEnabled()) {
+            roomInventory.release(hotelId, quantity);
+        } else if (hotelRepository.releaseRooms(hotelId, quantity) == 0) {
+            // Capped at capacity, so a compensation delivered twice cannot over-release
+            throw new ResourceNotFoundException("Hotel not found with id: " + hotelId);
+        }
+        hotelCatalog.adjustRooms(hotelId, quantity);
+    }
+    
+    private long cursor(Long after) {
+        return after != null ? after : 0L;
+    }
+    
+    private Pageable keysetPage(Integer limit) {
+        // One extra row tells us whether another page follows
+        return PageRequest.of(0, pageSize(limit) + 1);
+    }
+    
+    private CursorPage<HotelDTO> toPage(List<Hotel> rows, Integer limit) {
+        int pageSize = pageSize(limit);
+        boolean hasMore = rows.size() > pageSize;
+        List<Hotel> page = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? page.get(page.size() - 1).getId() : null;
+        return new CursorPage<>(page.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
     
     private HotelDTO mapToDTO(Hotel hotel) {
@@ -106,10 +330,12 @@ public class HotelService {
                 hotel.getAddress(),
                 hotel.getStarRating(),
                 hotel.getPricePerNight(),
-                hotel.getAvailableRooms(),
+                roomInventory.availableRooms(hotel),
                 hotel.getTotalRooms(),
                 hotel.getAmenities(),
-                hotel.getAvailable()
+                hotel.getLatitude(),
+                hotel.getLongitude(),
+                roomInventory.isAvailable(hotel)
         );
     }
     
@@ -124,6 +350,8 @@ public class HotelService {
         hotel.setAvailableRooms(dto.getAvailableRooms());
         hotel.setTotalRooms(dto.getTotalRooms());
         hotel.setAmenities(dto.getAmenities());
+        hotel.setLatitude(dto.getLatitude());
+        hotel.setLongitude(dto.getLongitude());
         hotel.setAvailable(dto.getAvailable() != null ? dto.getAvailable() : true);
         return hotel;
     }
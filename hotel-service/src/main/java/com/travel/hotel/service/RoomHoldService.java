@@ -0,0 +1,181 @@
+package com.travel.hotel.service;
+
+import com.travel.hotel.dto.RoomHoldDTO;
+import com.travel.hotel.dto.RoomReservation;
+import com.travel.hotel.entity.RoomHold;
+import com.travel.hotel.entity.RoomHold.HoldStatus;
+import com.travel.hotel.exception.HoldNotActiveException;
+import com.travel.hotel.exception.InsufficientRoomsException;
+import com.travel.hotel.exception.ResourceNotFoundException;
+import com.travel.hotel.repository.RoomHoldRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Time-limited holds on hotel rooms. Creating a hold takes the rooms right away; confirming it
+ * (once the booking is paid) makes the reservation permanent, and a hold that is neither
+ * confirmed nor released before its TTL gives its rooms back. Expiry deadlines live in a
+ * {@link TimingWheel}, so each tick only loads the holds that actually came due.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomHoldService {
+    
+    private final RoomHoldRepository holdRepository;
+    private final HotelService hotelService;
+    private final TransactionTemplate transactionTemplate;
+    
+    @Value("${hotel.holds.ttl:15m}")
+    private Duration ttl;
+    
+    @Value("${hotel.holds.tick-ms:1000}")
+    private long tickMillis;
+    
+    @Value("${hotel.holds.expiry-batch-size:500}")
+    private int expiryBatchSize;
+    
+    private TimingWheel<String> expiryWheel;
+    
+    @PostConstruct
+    void start() {
+        expiryWheel = new TimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void scheduleOutstandingHolds() {
+        List<RoomHold> held = holdRepository.findByStatus(HoldStatus.HELD);
+        held.forEach(this::scheduleExpiry);
+        if (!held.isEmpty()) {
+            log.info("Scheduled expiry of {} outstanding hotel holds", held.size());
+        }
+    }
+    
+    /**
+     * Holds rooms for every item, all or nothing, and returns one hold per item in the same order.
+     */
+    @Transactional
+    public List<RoomHoldDTO> createHolds(List<RoomReservation> items) {
+        hotelService.reserveRooms(items);
+        
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        List<RoomHold> holds = items.stream()
+                .map(item -> new RoomHold(UUID.randomUUID().toString(), item.getHotelId(), item.getQuantity(),
+                        HoldStatus.HELD, expiresAt, null, null))
+                .collect(Collectors.toList());
+        holdRepository.saveAll(holds);
+        // If the transaction rolls back, the entries find no HELD hold when they come due
+        holds.forEach(this::scheduleExpiry);
+        return holds.stream().map(this::mapToDTO).collect(Collectors.toList());
+    }
+    
+    /**
+     * Turns holds into permanent reservations. Confirming twice is harmless. A hold that already
+     * expired takes its rooms again if they are still available, so a payment that arrives
+     * late does not lose the booking; a released hold cannot be confirmed.
+     */
+    @Transactional
+    public List<RoomHoldDTO> confirmHolds(List<String> holdIds) {
+        List<RoomHold> holds = lockHolds(holdIds);
+        for (RoomHold hold : holds) {
+            if (hold.getStatus() == HoldStatus.RELEASED) {
+                throw new HoldNotActiveException("Hold " + hold.getId() + " was released");
+            }
+            if (hold.getStatus() == HoldStatus.EXPIRED) {
+                try {
+                    hotelService.reserveRooms(hold.getHotelId(), hold.getQuantity());
+                } catch (InsufficientRoomsException e) {
+                    throw new HoldNotActiveException("Hold " + hold.getId() + " expired and its rooms are no longer available");
+                }
+            }
+            hold.setStatus(HoldStatus.CONFIRMED);
+        }
+        return holdRepository.saveAll(holds).stream().map(this::mapToDTO).collect(Collectors.toList());
+    }
+    
+    /**
+     * Gives back the rooms of held or confirmed holds. Releasing twice, or releasing a hold
+     * that already expired, is harmless.
+     */
+    @Transactional
+    public List<RoomHoldDTO> releaseHolds(List<String> holdIds) {
+        List<RoomHold> holds = lockHolds(holdIds);
+        Map<Long, Integer> released = new TreeMap<>();
+        for (RoomHold hold : holds) {
+            if (hold.getStatus() == HoldStatus.HELD || hold.getStatus() == HoldStatus.CONFIRMED) {
+                hold.setStatus(HoldStatus.RELEASED);
+                released.merge(hold.getHotelId(), hold.getQuantity(), Integer::sum);
+            }
+        }
+        released.forEach(hotelService::releaseRooms);
+        return holdRepository.saveAll(holds).stream().map(this::mapToDTO).collect(Collectors.toList());
+    }
+    
+    @Scheduled(fixedDelayString = "${hotel.holds.tick-ms:1000}")
+    public void expireHolds() {
+        List<String> due = expiryWheel.advance(System.currentTimeMillis());
+        for (int from = 0; from < due.size(); from += expiryBatchSize) {
+            List<String> batch = due.subList(from, Math.min(from + expiryBatchSize, due.size()));
+            try {
+                Integer expired = transactionTemplate.execute(status -> expire(batch));
+                if (expired != null && expired > 0) {
+                    log.info("Expired {} hotel holds", expired);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Failed to expire {} hotel holds, retrying next tick: {}", batch.size(), e.getMessage());
+                long retryAt = System.currentTimeMillis() + tickMillis;
+                batch.forEach(holdId -> expiryWheel.schedule(holdId, retryAt));
+            }
+        }
+    }
+    
+    private int expire(List<String> holdIds) {
+        // Holds confirmed or released in the meantime are simply not found
+        List<RoomHold> holds = holdRepository.findByIdInAndStatusOrderByIdAsc(holdIds, HoldStatus.HELD);
+        Map<Long, Integer> released = new TreeMap<>();
+        for (RoomHold hold : holds) {
+            hold.setStatus(HoldStatus.EXPIRED);
+            released.merge(hold.getHotelId(), hold.getQuantity(), Integer::sum);
+        }
+        holdRepository.saveAll(holds);
+        released.forEach(hotelService::releaseRooms);
+        return holds.size();
+    }
+    
+    private List<RoomHold> lockHolds(List<String> holdIds) {
+        Set<String> ids = new HashSet<>(holdIds);
+        List<RoomHold> holds = holdRepository.findByIdInOrderByIdAsc(ids);
+        if (holds.size() < ids.size()) {
+            holds.forEach(hold -> ids.remove(hold.getId()));
+            throw new ResourceNotFoundException("Holds not found: " + ids);
+        }
+        return holds;
+    }
+    
+    private void scheduleExpiry(RoomHold hold) {
+        expiryWheel.schedule(hold.getId(), hold.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+    
+    private RoomHoldDTO mapToDTO(RoomHold hold) {
+        return new RoomHoldDTO(hold.getId(), hold.getHotelId(), hold.getQuantity(), hold.getStatus(), hold.getExpiresAt());
+    }
+}
@@ -0,0 +1,296 @@
+package com.travel.hotel.service;
+
+import com.travel.hotel.entity.Hotel;
+import com.travel.hotel.entity.InventoryCheckpoint;
+import com.travel.hotel.exception.InsufficientRoomsException;
+import com.travel.hotel.exception.ResourceNotFoundException;
+import com.travel.hotel.repository.HotelRepository;
+import com.travel.hotel.repository.InventoryCheckpointRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Optional in-memory room inventory for flash sales, where even a conditional UPDATE on one
+ * hotel row serializes every reservation. With {@code hotel.inventory.engine=memory} rooms
+ * are taken from a {@link StripedCounter} per hotel, every change is journaled before the
+ * call returns, and the aggregated deltas are written back to the hotel rows in the
+ * background. Counters are loaded lazily from the database on first use.
+ * <p>
+ * The database row lags behind by up to one flush interval, so reads that have to see the
+ * current count go through {@link #availableRooms(Hotel)} rather than the entity.
+ * <p>
+ * The last segment written back is kept in an {@link InventoryCheckpoint} row, committed with
+ * the write-back. Segments up to it are never replayed, and a journal found next to a database
+ * without a checkpoint, such as a fresh in-memory one, is dropped rather than replayed.
+ * <p>
+ * Counters are not part of the caller's transaction, so they follow it: rooms taken inside a
+ * transaction that rolls back are given back, and rooms released inside one are only given
+ * back once it commits.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoomInventory {
+    
+    private static final String JOURNAL = "rooms";
+    
+    private final HotelRepository hotelRepository;
+    private final InventoryCheckpointRepository checkpointRepository;
+    private final PlatformTransactionManager transactionManager;
+    
+    @Value("${hotel.inventory.engine:database}")
+    private String engine;
+    
+    @Value("${hotel.inventory.stripes:8}")
+    private int stripes;
+    
+    @Value("${hotel.inventory.journal-dir:${java.io.tmpdir}/hotel-inventory}")
+    private String journalDir;
+    
+    private final Map<Long, StripedCounter> counters = new ConcurrentHashMap<>();
+    
+    // Held while writing back, and while a counter is loaded or dropped, so a counter is never
+    // built from a row that is missing deltas already taken out of the journal
+    private final Object flushLock = new Object();
+    
+    private InventoryJournal journal;
+    private TransactionTemplate writeBackTransaction;
+    
+    @PostConstruct
+    void start() {
+        if (!isEnabled()) {
+            return;
+        }
+        // Write-back commits on its own, also when a flush is triggered inside a caller's transaction
+        writeBackTransaction = new TransactionTemplate(transactionManager);
+        writeBackTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        journal = new InventoryJournal(Path.of(journalDir), stripes);
+        Optional<InventoryCheckpoint> checkpoint = checkpointRepository.findById(JOURNAL);
+        InventoryJournal.Batch recovered = journal.open(checkpoint.map(InventoryCheckpoint::getSegment).orElse(0L));
+        if (checkpoint.isEmpty()) {
+            // The checkpoint is saved before the first append, so a database without one has never
+            // seen this journal, e.g. an in-memory database reseeded on restart: its rows do not
+            // carry the old deltas and replaying them would apply changes made to rows that are gone
+            if (!recovered.getDeltas().isEmpty()) {
+                log.warn("Discarding room changes for {} hotels journaled against another database",
+                        recovered.getDeltas().size());
+            }
+            writeBackTransaction.executeWithoutResult(status -> checkpointRepository.save(
+                    new InventoryCheckpoint(JOURNAL, recovered.getSegment())));
+        } else if (!recovered.getDeltas().isEmpty()) {
+            writeBackTransaction.executeWithoutResult(status -> writeBack(recovered));
+            log.info("Recovered unflushed room changes for {} hotels from the inventory journal",
+                    recovered.getDeltas().size());
+        }
+        journal.discard(recovered.getSegment());
+    }
+    
+    public boolean isEnabled() {
+        return "memory".equalsIgnoreCase(engine);
+    }
+    
+    public void reserve(Long hotelId, int quantity) {
+        take(hotelId, quantity);
+        onRollback(() -> give(hotelId, quantity));
+    }
+    
+    /**
+     * Reserves several hotels at once. If one cannot be covered, the rooms already taken for the
+     * others are given back before the failure is rethrown.
+     */
+    public void reserveAll(Map<Long, Integer> quantities) {
+        Map<Long, Integer> taken = new LinkedHashMap<>();
+        try {
+            quantities.forEach((hotelId, quantity) -> {
+                take(hotelId, quantity);
+                taken.put(hotelId, quantity);
+            });
+        } catch (RuntimeException e) {
+            taken.forEach(this::give);
+            throw e;
+        }
+        onRollback(() -> taken.forEach(this::give));
+    }
+    
+    public void release(Long hotelId, int quantity) {
+        // Loaded now, so an unknown hotel still fails the caller
+        counter(hotelId);
+        afterCommit(() -> give(hotelId, quantity));
+    }
+    
+    private void take(Long hotelId, int quantity) {
+        StripedCounter rooms = counter(hotelId);
+        if (!rooms.tryTake(quantity)) {
+            throw new InsufficientRoomsException("Not enough rooms available for hotel: " + hotelId
+                    + " (requested " + quantity + ", available " + rooms.sum() + ")");
+        }
+        try {
+            journal.append(hotelId, -quantity);
+        } catch (RuntimeException e) {
+            rooms.give(quantity);
+            throw e;
+        }
+    }
+    
+    private void give(Long hotelId, int quantity) {
+        StripedCounter rooms = counter(hotelId);
+        // Capped at capacity, so a compensation delivered twice cannot over-release
+        int released = rooms.give(quantity);
+        if (released == 0) {
+            return;
+        }
+        try {
+            journal.append(hotelId, released);
+        } catch (RuntimeException e) {
+            rooms.tryTake(released);
+            throw e;
+        }
+    }
+    
+    public int availableRooms(Long hotelId) {
+        return counter(hotelId).sum();
+    }
+    
+    /**
+     * The current room count for a hotel that was already read from the database: the
+     * in-memory count when this engine holds one, otherwise the persisted value.
+     */
+    public int availableRooms(Hotel hotel) {
+        StripedCounter rooms = isEnabled() ? counters.get(hotel.getId()) : null;
+        return rooms != null ? rooms.sum() : hotel.getAvailableRooms();
+    }
+    
+    public boolean isAvailable(Hotel hotel) {
+        StripedCounter rooms = isEnabled() ? counters.get(hotel.getId()) : null;
+        return rooms != null ? rooms.sum() > 0 : hotel.getAvailable();
+    }
+    
+    /**
+     * Drops the in-memory count for a hotel whose row is being edited directly, once before
+     * and once after the surrounding transaction commits, so the next reservation reloads it.
+     * Reservations taken while the edit is in flight are applied on top of it.
+     */
+    public void evict(Long hotelId) {
+        if (!isEnabled()) {
+            return;
+        }
+        drop(hotelId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    drop(hotelId);
+                }
+            });
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${hotel.inventory.flush-interval-ms:200}")
+    public void flush() {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (flushLock) {
+            InventoryJournal.Batch batch = journal.rotate();
+            if (batch == null) {
+                return;
+            }
+            if (!batch.getDeltas().isEmpty()) {
+                try {
+                    writeBackTransaction.executeWithoutResult(status -> writeBack(batch));
+                } catch (RuntimeException e) {
+                    journal.restore(batch.getDeltas());
+                    log.warn("Failed to write back room changes for {} hotels, will retry: {}",
+                            batch.getDeltas().size(), e.getMessage());
+                    return;
+                }
+            }
+            // A crash before this delete is harmless: the checkpoint committed with the batch skips it
+            journal.discard(batch.getSegment());
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        if (!isEnabled()) {
+            return;
+        }
+        flush();
+        journal.close();
+    }
+    
+    private StripedCounter counter(Long hotelId) {
+        StripedCounter rooms = counters.get(hotelId);
+        if (rooms != null) {
+            return rooms;
+        }
+        synchronized (flushLock) {
+            return counters.computeIfAbsent(hotelId, this::load);
+        }
+    }
+    
+    private StripedCounter load(Long hotelId) {
+        Hotel hotel = hotelRepository.findById(hotelId)
+                .orElseThrow(() -> new ResourceNotFoundException("Hotel not found with id: " + hotelId));
+        // Changes journaled since the last write-back are not in the row yet
+        int available = hotel.getAvailableRooms() + journal.pending(hotelId);
+        return new StripedCounter(Math.max(0, Math.min(available, hotel.getTotalRooms())),
+                hotel.getTotalRooms(), stripes);
+    }
+    
+    private void onRollback(Runnable undo) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        undo.run();
+                    }
+                }
+            });
+        }
+    }
+    
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+    
+    private void drop(Long hotelId) {
+        synchronized (flushLock) {
+            flush();
+            counters.remove(hotelId);
+        }
+    }
+    
+    private void writeBack(InventoryJournal.Batch batch) {
+        // Ascending ids keep row locks in a stable order
+        new TreeMap<>(batch.getDeltas()).forEach(hotelRepository::adjustRooms);
+        checkpointRepository.save(new InventoryCheckpoint(JOURNAL, batch.getSegment()));
+    }
+}
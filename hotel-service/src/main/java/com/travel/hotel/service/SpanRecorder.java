@@ -0,0 +1,151 @@
+package com.travel.hotel.service;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the spans this service finished for the most recent traces in memory, so a request
+ * can be followed without an external tracing backend. Every service only records its own
+ * spans; the trace and parent ids tie them together across services.
+ */
+@Component
+public class SpanRecorder extends SpanHandler {
+    
+    @Value("${tracing.recorder.max-traces:500}")
+    private int maxTraces;
+    
+    @Value("${tracing.recorder.max-spans-per-trace:200}")
+    private int maxSpansPerTrace;
+    
+    // Insertion ordered, so the trace seen longest ago is dropped first
+    private final Map<String, List<RecordedSpan>> traces = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, List<RecordedSpan>> eldest) {
+            return size() > maxTraces;
+        }
+    };
+    
+    @Override
+    public boolean end(TraceContext context, MutableSpan span, Cause cause) {
+        if (cause == Cause.ABANDONED) {
+            return true;
+        }
+        RecordedSpan recorded = RecordedSpan.of(context, span);
+        synchronized (traces) {
+            List<RecordedSpan> spans = traces.computeIfAbsent(recorded.getTraceId(), id -> new ArrayList<>());
+            if (spans.size() < maxSpansPerTrace) {
+                spans.add(recorded);
+            }
+        }
+        return true;
+    }
+    
+    public List<TraceSummary> recentTraces(int limit) {
+        List<List<RecordedSpan>> recent;
+        synchronized (traces) {
+            recent = new ArrayList<>(traces.size());
+            traces.values().forEach(spans -> recent.add(List.copyOf(spans)));
+        }
+        return recent.stream()
+                .map(TraceSummary::of)
+                .sorted(Comparator.comparing(TraceSummary::getStart).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+    
+    public List<RecordedSpan> getTrace(String traceId) {
+        List<RecordedSpan> spans;
+        synchronized (traces) {
+            List<RecordedSpan> recorded = traces.get(traceId);
+            if (recorded == null) {
+                return null;
+            }
+            spans = new ArrayList<>(recorded);
+        }
+        spans.sort(Comparator.comparing(RecordedSpan::getStart));
+        return spans;
+    }
+    
+    @Getter
+    @RequiredArgsConstructor
+    public static class RecordedSpan {
+        private final String traceId;
+        private final String spanId;
+        private final String parentId;
+        private final String name;
+        private final String kind;
+        private final String localService;
+        private final String remoteService;
+        private final Instant start;
+        private final long durationMicros;
+        private final String error;
+        private final Map<String, String> tags;
+        
+        static RecordedSpan of(TraceContext context, MutableSpan span) {
+            Map<String, String> tags = new LinkedHashMap<>();
+            for (int i = 0; i < span.tagCount(); i++) {
+                tags.put(span.tagKeyAt(i), span.tagValueAt(i));
+            }
+            String error = span.error() != null ? span.error().toString() : tags.get("error");
+            long startMicros = span.startTimestamp();
+            return new RecordedSpan(
+                    context.traceIdString(),
+                    context.spanIdString(),
+                    context.parentIdString(),
+                    span.name(),
+                    span.kind() != null ? span.kind().name() : null,
+                    span.localServiceName(),
+                    span.remoteServiceName(),
+                    Instant.EPOCH.plus(Duration.ofNanos(startMicros * 1000)),
+                    span.finishTimestamp() - startMicros,
+                    error,
+                    tags);
+        }
+        
+        Instant getEnd() {
+            return start.plus(Duration.ofNanos(durationMicros * 1000));
+        }
+    }
+    
+    @Getter
+    @RequiredArgsConstructor
+    public static class TraceSummary {
+        private final String traceId;
+        private final String rootSpan;
+        private final Instant start;
+        private final long durationMicros;
+        private final int spanCount;
+        private final boolean error;
+        
+        static TraceSummary of(List<RecordedSpan> spans) {
+            RecordedSpan first = spans.stream().min(Comparator.comparing(RecordedSpan::getStart)).orElseThrow();
+            Instant end = spans.stream().map(RecordedSpan::getEnd).max(Comparator.naturalOrder()).orElseThrow();
+            // The span whose parent lives in another service (or that has none) is this service's entry point
+            RecordedSpan root = spans.stream()
+                    .filter(span -> spans.stream().noneMatch(other -> other.getSpanId().equals(span.getParentId())))
+                    .min(Comparator.comparing(RecordedSpan::getStart))
+                    .orElse(first);
+            return new TraceSummary(
+                    first.getTraceId(),
+                    root.getName(),
+                    first.getStart(),
+                    Duration.between(first.getStart(), end).toNanos() / 1000,
+                    spans.size(),
+                    spans.stream().anyMatch(span -> span.getError() != null));
+        }
+    }
+}
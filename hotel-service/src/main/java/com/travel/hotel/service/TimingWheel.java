@@ -0,0 +1,110 @@
+package com.travel.hotel.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hierarchical timing wheel. Scheduling is constant time and advancing the clock only
+ * touches the slots that come due, so expiring entries never needs a scan over everything
+ * that is scheduled. Level 0 has one slot per tick; each higher level covers a full turn of
+ * the level below it per slot and is cascaded down as time reaches it.
+ */
+public class TimingWheel<T> {
+    
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final long SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    
+    private final long tickMillis;
+    private final ArrayDeque<Entry<T>>[][] wheels;
+    private final List<T> due = new ArrayList<>();
+    private long currentTick;
+    private int size;
+    
+    @SuppressWarnings("unchecked")
+    public TimingWheel(long tickMillis, long startMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new ArrayDeque[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new ArrayDeque<>();
+            }
+        }
+    }
+    
+    public synchronized void schedule(T item, long deadlineMillis) {
+        // Rounded up, so an entry never fires before its deadline
+        place(new Entry<>(item, (deadlineMillis + tickMillis - 1) / tickMillis));
+        size++;
+    }
+    
+    /**
+     * Moves the clock forward to {@code nowMillis} and returns every entry that came due.
+     */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            ArrayDeque<Entry<T>> slot = wheels[0][(int) (currentTick & SLOT_MASK)];
+            while (!slot.isEmpty()) {
+                Entry<T> entry = slot.poll();
+                if (entry.deadlineTick <= currentTick) {
+                    expired.add(entry.item);
+                } else {
+                    place(entry);
+                }
+            }
+        }
+        expired.addAll(due);
+        due.clear();
+        size -= expired.size();
+        return expired;
+    }
+    
+    public synchronized int size() {
+        return size;
+    }
+    
+    private void cascade() {
+        // Highest level first, so an entry can move all the way down within one tick
+        for (int level = LEVELS - 1; level >= 1; level--) {
+            if ((currentTick & ((1L << (SLOT_BITS * level)) - 1)) == 0) {
+                int slot = (int) ((currentTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                ArrayDeque<Entry<T>> entries = wheels[level][slot];
+                wheels[level][slot] = new ArrayDeque<>();
+                entries.forEach(this::place);
+            }
+        }
+    }
+    
+    private void place(Entry<T> entry) {
+        long delta = entry.deadlineTick - currentTick;
+        if (delta <= 0) {
+            due.add(entry.item);
+            return;
+        }
+        for (int level = 0; level < LEVELS; level++) {
+            // Beyond the top level's range an entry is parked there and placed again when it cascades
+            if (delta < 1L << (SLOT_BITS * (level + 1)) || level == LEVELS - 1) {
+                int slot = (int) ((entry.deadlineTick >>> (SLOT_BITS * level)) & SLOT_MASK);
+                wheels[level][slot].add(entry);
+                return;
+            }
+        }
+    }
+    
+    private static class Entry<T> {
+        private final T item;
+        private final long deadlineTick;
+        
+        Entry(T item, long deadlineTick) {
+            this.item = item;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.travel.hotel.service;
+
+import com.travel.hotel.entity.Hotel;
+import com.travel.hotel.repository.HotelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class HotelCatalogTest {
+    
+    private HotelCatalog catalog;
+    
+    @BeforeEach
+    void setUp() {
+        catalog = new HotelCatalog(mock(HotelRepository.class));
+        ReflectionTestUtils.setField(catalog, "cellDegrees", 1.0);
+        catalog.load();
+        
+        // One hotel every 10 degrees, so small searches only visit the cells they overlap
+        long id = 1000;
+        for (int latitude = -85; latitude <= 85; latitude += 10) {
+            for (int longitude = -175; longitude <= 175; longitude += 10) {
+                catalog.put(hotel(id++, latitude, longitude));
+            }
+        }
+        // Either side of the antimeridian
+        catalog.put(hotel(1, 0.0, 179.8));
+        catalog.put(hotel(2, 0.0, -179.5));
+        catalog.put(hotel(3, 0.0, 178.0));
+        // Around the north pole, on opposite meridians
+        catalog.put(hotel(11, 89.9, 90));
+        catalog.put(hotel(12, 89.5, 90));
+        catalog.put(hotel(13, 89.0, -90));
+        catalog.put(hotel(14, 88.0, -90));
+        catalog.put(hotel(15, 89.2, 175));
+        catalog.put(hotel(16, 89.2, -175));
+        // Near the south pole
+        catalog.put(hotel(21, -89.9, 0));
+    }
+    
+    @Test
+    void radiusSearchCrossesTheAntimeridianFromTheEast() {
+        assertEquals(List.of(1L, 2L), ids(catalog.nearby(0, 179.9, 100, 1, 5, null, null, List.of(), 0, 10)));
+    }
+    
+    @Test
+    void radiusSearchCrossesTheAntimeridianFromTheWest() {
+        assertEquals(List.of(2L, 1L), ids(catalog.nearby(0, -179.6, 100, 1, 5, null, null, List.of(), 0, 10)));
+    }
+    
+    @Test
+    void boxSearchCrossesTheAntimeridianWhenWestIsEastOfEast() {
+        assertEquals(List.of(1L, 2L), ids(catalog.within(-1, 179, 1, -179, 1, 5, null, null, List.of(), 0, 10)));
+        assertEquals(List.of(3L), ids(catalog.within(-1, 177, 1, 179, 1, 5, null, null, List.of(), 0, 10)));
+    }
+    
+    @Test
+    void radiusSearchOverTheNorthPoleCoversEveryLongitude() {
+        // The hotels on the 90th meridian are on the far side of the pole, those by the antimeridian beside it
+        assertEquals(List.of(11L, 12L, 13L, 16L, 15L), ids(catalog.nearby(89.8, -90, 100, 1, 5, null, null, List.of(), 0, 10)));
+    }
+    
+    @Test
+    void radiusSearchOverTheSouthPoleCoversEveryLongitude() {
+        List<HotelCatalog.Match> matches = catalog.nearby(-89.9, 180, 50, 1, 5, null, null, List.of(), 0, 10);
+        
+        assertEquals(List.of(21L), ids(matches));
+        assertEquals(22.2, matches.get(0).getDistanceKm(), 0.1);
+    }
+    
+    @Test
+    void boxSearchAtThePoleCrossingTheAntimeridian() {
+        assertEquals(List.of(15L, 16L), ids(catalog.within(88.5, 170, 90, -170, 1, 5, null, null, List.of(), 0, 10)));
+    }
+    
+    @Test
+    void gridFollowsMovedAndRemovedHotels() {
+        catalog.put(hotel(1, 10.2, 10.2));
+        catalog.remove(2L);
+        
+        assertEquals(List.of(), ids(catalog.nearby(0, 179.9, 100, 1, 5, null, null, List.of(), 0, 10)));
+        assertEquals(List.of(1L), ids(catalog.nearby(10, 10, 200, 1, 5, null, null, List.of(), 0, 10)));
+    }
+    
+    @Test
+    void radiusSearchAppliesTheRoomFilter() {
+        catalog.adjustRooms(1L, -10);
+        
+        assertEquals(List.of(2L), ids(catalog.nearby(0, 179.9, 100, 1, 5, null, null, List.of(), 1, 10)));
+    }
+    
+    private static List<Long> ids(List<HotelCatalog.Match> matches) {
+        return matches.stream().map(HotelCatalog.Match::getHotelId).collect(Collectors.toList());
+    }
+    
+    private static Hotel hotel(long id, double latitude, double longitude) {
+        return new Hotel(id, "Hotel " + id, "Anywhere", "1 Main Street", 3, new BigDecimal("100.00"),
+                10, 10, "wifi", latitude, longitude, true, 0L, null);
+    }
+}
@@ -0,0 +1,205 @@
+package com.travel.hotel.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InventoryJournalTest {
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void rotateAggregatesDeltasPerItemAndDropsNetZero() {
+        InventoryJournal journal = new InventoryJournal(directory, 4);
+        journal.open(0);
+        journal.append(1, -2);
+        journal.append(1, -3);
+        journal.append(2, -1);
+        journal.append(2, 1);
+        
+        InventoryJournal.Batch batch = journal.rotate();
+        
+        assertEquals(Map.of(1L, -5), batch.getDeltas());
+        assertEquals(1, batch.getSegment());
+        assertNull(journal.rotate());
+        journal.close();
+    }
+    
+    @Test
+    void pendingTracksDeltasUntilRotated() {
+        InventoryJournal journal = new InventoryJournal(directory, 4);
+        journal.open(0);
+        journal.append(7, -4);
+        journal.append(7, 1);
+        
+        assertEquals(-3, journal.pending(7));
+        journal.rotate();
+        assertEquals(0, journal.pending(7));
+        journal.close();
+    }
+    
+    @Test
+    void replaysSegmentsThatWereNeverDiscarded() {
+        InventoryJournal journal = new InventoryJournal(directory, 4);
+        journal.open(0);
+        journal.append(1, -2);
+        journal.rotate();
+        journal.append(1, -1);
+        journal.append(3, 5);
+        // Crash: nothing was written back or discarded
+        journal.close();
+        
+        InventoryJournal.Batch recovered = new InventoryJournal(directory, 4).open(0);
+        
+        assertEquals(Map.of(1L, -3, 3L, 5), recovered.getDeltas());
+        assertEquals(2, recovered.getSegment());
+    }
+    
+    @Test
+    void skipsSegmentsCoveredByTheCheckpointWhenTheCrashCameBeforeDiscard() throws Exception {
+        InventoryJournal journal = new InventoryJournal(directory, 4);
+        journal.open(0);
+        journal.append(1, -2);
+        InventoryJournal.Batch written = journal.rotate();
+        // Written back with checkpoint = written.getSegment(), then a crash before discard
+        journal.append(1, -1);
+        journal.close();
+        
+        InventoryJournal reopened = new InventoryJournal(directory, 4);
+        InventoryJournal.Batch recovered = reopened.open(written.getSegment());
+        
+        assertEquals(Map.of(1L, -1), recovered.getDeltas());
+        reopened.discard(recovered.getSegment());
+        reopened.close();
+        assertEquals(List.of(), segmentsUpTo(recovered.getSegment()));
+    }
+    
+    @Test
+    void discardedSegmentsAreNotReplayed() {
+        InventoryJournal journal = new InventoryJournal(directory, 4);
+        journal.open(0);
+        journal.append(1, -2);
+        journal.discard(journal.rotate().getSegment());
+        journal.close();
+        
+        assertTrue(new InventoryJournal(directory, 4).open(0).getDeltas().isEmpty());
+    }
+    
+    @Test
+    void restoredDeltasAreWrittenBackWithTheNextSegment() {
+        InventoryJournal journal = new InventoryJournal(directory, 4);
+        journal.open(0);
+        journal.append(1, -2);
+        InventoryJournal.Batch failed = journal.rotate();
+        journal.restore(failed.getDeltas());
+        journal.append(1, -1);
+        
+        InventoryJournal.Batch retried = journal.rotate();
+        
+        assertEquals(Map.of(1L, -3), retried.getDeltas());
+        assertTrue(retried.getSegment() > failed.getSegment());
+        // The retry's checkpoint covers the failed segment too
+        journal.discard(retried.getSegment());
+        journal.close();
+        assertTrue(new InventoryJournal(directory, 4).open(retried.getSegment()).getDeltas().isEmpty());
+    }
+    
+    @Test
+    void numbersNewSegmentsAfterTheCheckpointWhenTheDirectoryWasEmptied() {
+        InventoryJournal journal = new InventoryJournal(directory, 4);
+        InventoryJournal.Batch recovered = journal.open(5);
+        journal.append(1, -1);
+        
+        InventoryJournal.Batch batch = journal.rotate();
+        
+        assertEquals(5, recovered.getSegment());
+        assertEquals(6, batch.getSegment());
+        journal.close();
+        assertEquals(Map.of(1L, -1), new InventoryJournal(directory, 4).open(5).getDeltas());
+    }
+    
+    @Test
+    void skipsATornRecord() throws Exception {
+        InventoryJournal journal = new InventoryJournal(directory, 1);
+        journal.open(0);
+        journal.append(1, -2);
+        journal.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            Path segment = files.findFirst().orElseThrow();
+            Files.write(segment, "1 -".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+        }
+        
+        assertEquals(Map.of(1L, -2), new InventoryJournal(directory, 1).open(0).getDeltas());
+    }
+    
+    @Test
+    void concurrentAppendsAreAllRotatedAndReplayed() throws Exception {
+        InventoryJournal journal = new InventoryJournal(directory, 8);
+        journal.open(0);
+        int threads = 8;
+        int appends = 2000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < appends; i++) {
+                    journal.append(i % 2, -1);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        // Rotations race with the appends; every delta has to land in exactly one batch
+        int rotated = 0;
+        while (workers.stream().anyMatch(Thread::isAlive)) {
+            rotated += total(journal.rotate());
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        rotated += total(journal.rotate());
+        journal.close();
+        
+        assertEquals(-threads * appends, rotated);
+        assertEquals(-threads * appends, total(new InventoryJournal(directory, 8).open(0)));
+    }
+    
+    private int total(InventoryJournal.Batch batch) {
+        return batch == null ? 0 : batch.getDeltas().values().stream().mapToInt(Integer::intValue).sum();
+    }
+    
+    private List<Path> segmentsUpTo(long segment) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            List<Path> covered = new ArrayList<>();
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                long number = Long.parseLong(name.substring("segment-".length(), name.indexOf('-', "segment-".length())));
+                if (number <= segment) {
+                    covered.add(file);
+                }
+            });
+            return covered;
+        }
+    }
+}
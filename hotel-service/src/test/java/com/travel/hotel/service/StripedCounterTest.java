@@ -0,0 +1,121 @@
+package com.travel.hotel.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StripedCounterTest {
+    
+    private static final int THREADS = 16;
+    
+    @Test
+    void spreadsTheInitialCountOverStripes() {
+        StripedCounter counter = new StripedCounter(13, 20, 4);
+        
+        assertEquals(13, counter.sum());
+    }
+    
+    @Test
+    void takesUnitsScatteredAcrossStripes() {
+        // One unit per stripe, so no single stripe can cover the take
+        StripedCounter counter = new StripedCounter(8, 8, 8);
+        
+        assertTrue(counter.tryTake(5));
+        assertEquals(3, counter.sum());
+    }
+    
+    @Test
+    void refusesATakeLargerThanWhatIsLeftAndKeepsTheCount() {
+        StripedCounter counter = new StripedCounter(8, 8, 8);
+        
+        assertFalse(counter.tryTake(9));
+        assertEquals(8, counter.sum());
+    }
+    
+    @Test
+    void givesBackNoMoreThanCapacity() {
+        StripedCounter counter = new StripedCounter(7, 10, 4);
+        
+        assertEquals(3, counter.give(5));
+        assertEquals(10, counter.sum());
+        assertEquals(0, counter.give(1));
+    }
+    
+    @Test
+    void concurrentTakesNeverOversell() throws Exception {
+        StripedCounter counter = new StripedCounter(1000, 1000, 8);
+        AtomicInteger taken = new AtomicInteger();
+        
+        runConcurrently(() -> {
+            int quantity = ThreadLocalRandom.current().nextInt(1, 4);
+            while (counter.tryTake(quantity)) {
+                taken.addAndGet(quantity);
+            }
+            // Whatever is left is less than this thread's quantity; drain it one at a time
+            while (counter.tryTake(1)) {
+                taken.incrementAndGet();
+            }
+        });
+        
+        assertEquals(1000, taken.get());
+        assertEquals(0, counter.sum());
+    }
+    
+    @Test
+    void concurrentGivesNeverExceedCapacity() throws Exception {
+        StripedCounter counter = new StripedCounter(50, 100, 8);
+        AtomicInteger given = new AtomicInteger();
+        AtomicInteger taken = new AtomicInteger();
+        
+        runConcurrently(() -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < 2000; i++) {
+                if (random.nextBoolean()) {
+                    given.addAndGet(counter.give(random.nextInt(1, 5)));
+                } else {
+                    int quantity = random.nextInt(1, 5);
+                    if (counter.tryTake(quantity)) {
+                        taken.addAndGet(quantity);
+                    }
+                }
+                assertTrue(counter.sum() <= 100);
+            }
+        });
+        
+        assertEquals(50 + given.get() - taken.get(), counter.sum());
+        assertTrue(counter.sum() >= 0 && counter.sum() <= 100);
+    }
+    
+    private void runConcurrently(Runnable task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run();
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
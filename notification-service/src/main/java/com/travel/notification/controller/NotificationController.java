@@ -1,6 +1,8 @@
 package com.travel.notification.controller;
 
 import com.travel.notification.dto.ApiResponse;
+import com.travel.notification.dto.CursorPage;
+import com.travel.notification.dto.NotificationBatchRequest;
 import com.travel.notification.dto.NotificationDTO;
 import com.travel.notification.dto.NotificationRequest;
 import com.travel.notification.service.NotificationService;
@@ -17,6 +19,8 @@ import java.util.List;
 @RequiredArgsConstructor
 public class NotificationController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final NotificationService notificationService;
     
     @PostMapping("/send")
@@ -27,6 +31,14 @@ public class NotificationController {
                 .body(ApiResponse.success("Notification sent successfully", notification));
     }
     
+    @PostMapping("/send/batch")
+    public ResponseEntity<ApiResponse<List<NotificationDTO>>> sendNotifications(
+            @Valid @RequestBody NotificationBatchRequest request) {
+        List<NotificationDTO> notifications = notificationService.sendNotifications(request.getNotifications());
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ApiResponse.success("Notifications sent successfully", notifications));
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ApiResponse<NotificationDTO>> getNotificationById(@PathVariable Long id) {
         NotificationDTO notification = notificationService.getNotificationById(id);
@@ -34,21 +46,40 @@ public class NotificationController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getAllNotifications() {
-        List<NotificationDTO> notifications = notificationService.getAllNotifications();
-        return ResponseEntity.ok(ApiResponse.success("Notifications retrieved successfully", notifications));
+    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getAllNotifications(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<NotificationDTO> notifications = notificationService.getAllNotifications(after, limit);
+        return withNextCursor(notifications.getNextCursor())
+                .body(ApiResponse.success("Notifications retrieved successfully", notifications.getItems()));
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getNotificationsByUserId(@PathVariable Long userId) {
-        List<NotificationDTO> notifications = notificationService.getNotificationsByUserId(userId);
-        return ResponseEntity.ok(ApiResponse.success("User notifications retrieved successfully", notifications));
+    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getNotificationsByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<NotificationDTO> notifications = notificationService.getNotificationsByUserId(userId, after, limit);
+        return withNextCursor(notifications.getNextCursor())
+                .body(ApiResponse.success("User notifications retrieved successfully", notifications.getItems()));
     }
     
     @GetMapping("/booking/{bookingId}")
-    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getNotificationsByBookingId(@PathVariable Long bookingId) {
-        List<NotificationDTO> notifications = notificationService.getNotificationsByBookingId(bookingId);
-        return ResponseEntity.ok(ApiResponse.success("Booking notifications retrieved successfully", notifications));
+    public ResponseEntity<ApiResponse<List<NotificationDTO>>> getNotificationsByBookingId(
+            @PathVariable Long bookingId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<NotificationDTO> notifications = notificationService.getNotificationsByBookingId(bookingId, after, limit);
+        return withNextCursor(notifications.getNextCursor())
+                .body(ApiResponse.success("Booking notifications retrieved successfully", notifications.getItems()));
+    }
+    
+    private ResponseEntity.BodyBuilder withNextCursor(Long nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+        }
+        return response;
     }
 }
 
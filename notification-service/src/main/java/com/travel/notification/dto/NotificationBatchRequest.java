@@ -0,0 +1,20 @@
+package com.travel.notification.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationBatchRequest {
+    
+    @NotEmpty(message = "At least one notification is required")
+    @Size(max = 500, message = "A batch cannot contain more than 500 notifications")
+    private List<@Valid NotificationRequest> notifications;
+}
@@ -8,7 +8,10 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+        @Index(name = "idx_notifications_user_id_id", columnList = "user_id, id"),
+        @Index(name = "idx_notifications_booking_id_id", columnList = "booking_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,6 +1,7 @@
 package com.travel.notification.repository;
 
 import com.travel.notification.entity.Notification;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -8,7 +9,8 @@ import java.util.List;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-    List<Notification> findByUserId(Long userId);
-    List<Notification> findByBookingId(Long bookingId);
+    List<Notification> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<Notification> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
+    List<Notification> findByBookingIdAndIdGreaterThanOrderByIdAsc(Long bookingId, Long id, Pageable pageable);
 }
 
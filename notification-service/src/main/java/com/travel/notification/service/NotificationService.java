@@ -1,5 +1,6 @@
 package com.travel.notification.service;
 
+import com.travel.notification.dto.CursorPage;
 import com.travel.notification.dto.NotificationDTO;
 import com.travel.notification.dto.NotificationRequest;
 import com.travel.notification.entity.Notification;
@@ -8,6 +9,8 @@ import com.travel.notification.exception.ResourceNotFoundException;
 import com.travel.notification.repository.NotificationRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,10 +23,28 @@ import java.util.stream.Collectors;
 @Slf4j
 public class NotificationService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    
     private final NotificationRepository notificationRepository;
     
     @Transactional
     public NotificationDTO sendNotification(NotificationRequest request) {
+        Notification savedNotification = notificationRepository.save(deliver(request));
+        return mapToDTO(savedNotification);
+    }
+    
+    @Transactional
+    public List<NotificationDTO> sendNotifications(List<NotificationRequest> requests) {
+        List<Notification> notifications = requests.stream()
+                .map(this::deliver)
+                .collect(Collectors.toList());
+        return notificationRepository.saveAll(notifications).stream()
+                .map(this::mapToDTO)
+                .collect(Collectors.toList());
+    }
+    
+    private Notification deliver(NotificationRequest request) {
         Notification notification = new Notification();
         notification.setUserId(request.getUserId());
         notification.setBookingId(request.getBookingId());
@@ -49,8 +70,7 @@ public class NotificationService {
             notification.setStatus(NotificationStatus.FAILED);
         }
         
-        Notification savedNotification = notificationRepository.save(notification);
-        return mapToDTO(savedNotification);
+        return notification;
     }
     
     public NotificationDTO getNotificationById(Long id) {
@@ -59,22 +79,40 @@ public class NotificationService {
         return mapToDTO(notification);
     }
     
-    public List<NotificationDTO> getAllNotifications() {
-        return notificationRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<NotificationDTO> getAllNotifications(Long after, Integer limit) {
+        return toPage(notificationRepository.findByIdGreaterThanOrderByIdAsc(cursor(after), keysetPage(limit)), limit);
     }
     
-    public List<NotificationDTO> getNotificationsByUserId(Long userId) {
-        return notificationRepository.findByUserId(userId).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<NotificationDTO> getNotificationsByUserId(Long userId, Long after, Integer limit) {
+        return toPage(notificationRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, cursor(after), keysetPage(limit)), limit);
     }
     
-    public List<NotificationDTO> getNotificationsByBookingId(Long bookingId) {
-        return notificationRepository.findByBookingId(bookingId).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<NotificationDTO> getNotificationsByBookingId(Long bookingId, Long after, Integer limit) {
+        return toPage(notificationRepository.findByBookingIdAndIdGreaterThanOrderByIdAsc(bookingId, cursor(after), keysetPage(limit)), limit);
+    }
+    
+    private long cursor(Long after) {
+        return after != null ? after : 0L;
+    }
+    
+    private Pageable keysetPage(Integer limit) {
+        // One extra row tells us whether another page follows
+        return PageRequest.of(0, pageSize(limit) + 1);
+    }
+    
+    private CursorPage<NotificationDTO> toPage(List<Notification> rows, Integer limit) {
+        int pageSize = pageSize(limit);
+        boolean hasMore = rows.size() > pageSize;
+        List<Notification> page = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? page.get(page.size() - 1).getId() : null;
+        return new CursorPage<>(page.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
     
     private NotificationDTO mapToDTO(Notification notification) {
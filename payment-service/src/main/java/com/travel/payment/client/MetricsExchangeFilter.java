@@ -0,0 +1,43 @@
+package com.travel.payment.client;
+
+import com.travel.payment.service.LatencyMetrics;
+import io.micrometer.core.instrument.binder.http.Outcome;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Times every WebClient request on the wire, tagged by downstream service, URI template
+ * and outcome. Using the template keeps path variables from creating a timer per id.
+ */
+@RequiredArgsConstructor
+public class MetricsExchangeFilter implements ExchangeFilterFunction {
+    
+    private static final String URI_TEMPLATE_ATTRIBUTE = WebClient.class.getName() + ".uriTemplate";
+    
+    private final LatencyMetrics latencyMetrics;
+    private final String service;
+    
+    @Override
+    public Mono<ClientResponse> filter(ClientRequest request, ExchangeFunction next) {
+        String operation = request.method().name() + " " + request.attribute(URI_TEMPLATE_ATTRIBUTE)
+                .map(Object::toString)
+                .orElse(request.url().getPath());
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return next.exchange(request)
+                    .doOnSuccess(response -> record(operation, response != null
+                            ? Outcome.forStatus(response.statusCode().value()).name() : "UNKNOWN", start))
+                    .doOnError(e -> record(operation, "ERROR", start))
+                    .doOnCancel(() -> record(operation, "CANCELLED", start));
+        });
+    }
+    
+    private void record(String operation, String outcome, long start) {
+        latencyMetrics.recordDownstream(service, operation, outcome, System.nanoTime() - start);
+    }
+}
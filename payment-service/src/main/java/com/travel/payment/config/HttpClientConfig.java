@@ -0,0 +1,59 @@
+package com.travel.payment.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Pooled transport shared by the inter-service WebClients.
+ */
+@Configuration
+public class HttpClientConfig {
+    
+    @Value("${http-client.max-connections-per-host:50}")
+    private int maxConnectionsPerHost;
+    
+    @Value("${http-client.pending-acquire-timeout:5s}")
+    private Duration pendingAcquireTimeout;
+    
+    @Value("${http-client.max-idle-time:30s}")
+    private Duration maxIdleTime;
+    
+    @Value("${http-client.max-life-time:5m}")
+    private Duration maxLifeTime;
+    
+    @Value("${http-client.protocols:HTTP11}")
+    private HttpProtocol[] protocols;
+    
+    @Value("${http-client.compression:true}")
+    private boolean compression;
+    
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider interServiceConnectionProvider() {
+        // One pool per remote host; metrics are tagged with the remote address
+        return ConnectionProvider.builder("inter-service")
+                .maxConnections(maxConnectionsPerHost)
+                .pendingAcquireTimeout(pendingAcquireTimeout)
+                .maxIdleTime(maxIdleTime)
+                .maxLifeTime(maxLifeTime)
+                .evictInBackground(maxIdleTime)
+                .metrics(true)
+                .build();
+    }
+    
+    @Bean
+    public ClientHttpConnector interServiceConnector(ConnectionProvider interServiceConnectionProvider) {
+        HttpClient httpClient = HttpClient.create(interServiceConnectionProvider)
+                .protocol(protocols)
+                .keepAlive(true)
+                .compress(compression);
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
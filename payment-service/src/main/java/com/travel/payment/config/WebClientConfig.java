@@ -1,20 +1,30 @@
 package com.travel.payment.config;
 
+import com.travel.payment.client.MetricsExchangeFilter;
+import com.travel.payment.service.LatencyMetrics;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebClientConfig {
     
+    private final LatencyMetrics latencyMetrics;
+    
     @Value("${services.booking.url}")
     private String bookingServiceUrl;
     
     @Bean
-    public WebClient bookingWebClient() {
-        return WebClient.builder()
+    public WebClient bookingWebClient(WebClient.Builder webClientBuilder, ClientHttpConnector interServiceConnector) {
+        // Boot's builder is observed, so calls carry the current trace context
+        return webClientBuilder
                 .baseUrl(bookingServiceUrl)
+                .clientConnector(interServiceConnector)
+                .filter(new MetricsExchangeFilter(latencyMetrics, "booking-service"))
                 .build();
     }
 }
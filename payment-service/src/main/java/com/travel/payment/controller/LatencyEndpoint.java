@@ -0,0 +1,72 @@
+package com.travel.payment.controller;
+
+import com.travel.payment.service.LatencyMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the payment step and downstream call timers at {@code /actuator/latency}, one row per
+ * tag combination. Counts are cumulative; max and percentiles cover the recent window
+ * Micrometer keeps for distribution statistics.
+ */
+@Component
+@Endpoint(id = "latency")
+@RequiredArgsConstructor
+public class LatencyEndpoint {
+    
+    private final MeterRegistry meterRegistry;
+    
+    @ReadOperation
+    public Map<String, List<TimerSummary>> latency() {
+        Map<String, List<TimerSummary>> result = new LinkedHashMap<>();
+        result.put(LatencyMetrics.STEP_TIMER, summarize(LatencyMetrics.STEP_TIMER));
+        result.put(LatencyMetrics.DOWNSTREAM_TIMER, summarize(LatencyMetrics.DOWNSTREAM_TIMER));
+        return result;
+    }
+    
+    private List<TimerSummary> summarize(String name) {
+        return meterRegistry.find(name).timers().stream()
+                .map(this::toSummary)
+                .sorted(Comparator.comparing(summary -> summary.getTags().toString()))
+                .collect(Collectors.toList());
+    }
+    
+    private TimerSummary toSummary(Timer timer) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        for (Tag tag : timer.getId().getTags()) {
+            tags.put(tag.getKey(), tag.getValue());
+        }
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (ValueAtPercentile value : snapshot.percentileValues()) {
+            percentiles.put("p" + Math.round(value.percentile() * 100), value.value(TimeUnit.MILLISECONDS));
+        }
+        return new TimerSummary(tags, snapshot.count(), snapshot.mean(TimeUnit.MILLISECONDS),
+                snapshot.max(TimeUnit.MILLISECONDS), percentiles);
+    }
+    
+    @Getter
+    @RequiredArgsConstructor
+    public static class TimerSummary {
+        private final Map<String, String> tags;
+        private final long count;
+        private final double meanMs;
+        private final double maxMs;
+        private final Map<String, Double> percentilesMs;
+    }
+}
@@ -1,8 +1,10 @@
 package com.travel.payment.controller;
 
 import com.travel.payment.dto.ApiResponse;
+import com.travel.payment.dto.CursorPage;
 import com.travel.payment.dto.PaymentDTO;
 import com.travel.payment.dto.PaymentRequest;
+import com.travel.payment.service.IdempotencyService;
 import com.travel.payment.service.PaymentService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -17,13 +19,20 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PaymentController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final PaymentService paymentService;
+    private final IdempotencyService idempotencyService;
     
     @PostMapping("/process")
-    public ResponseEntity<ApiResponse<PaymentDTO>> processPayment(@Valid @RequestBody PaymentRequest request) {
-        PaymentDTO payment = paymentService.processPayment(request);
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(ApiResponse.success("Payment processed successfully", payment));
+    public ResponseEntity<ApiResponse<PaymentDTO>> processPayment(
+            @RequestHeader(value = IdempotencyService.IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey,
+            @Valid @RequestBody PaymentRequest request) {
+        return idempotencyService.execute(idempotencyKey, "POST /api/payments/process", request, PaymentDTO.class, () -> {
+            PaymentDTO payment = paymentService.processPayment(request);
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(ApiResponse.success("Payment processed successfully", payment));
+        });
     }
     
     @GetMapping("/{id}")
@@ -33,15 +42,22 @@ public class PaymentController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<PaymentDTO>>> getAllPayments() {
-        List<PaymentDTO> payments = paymentService.getAllPayments();
-        return ResponseEntity.ok(ApiResponse.success("Payments retrieved successfully", payments));
+    public ResponseEntity<ApiResponse<List<PaymentDTO>>> getAllPayments(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<PaymentDTO> payments = paymentService.getAllPayments(after, limit);
+        return withNextCursor(payments.getNextCursor())
+                .body(ApiResponse.success("Payments retrieved successfully", payments.getItems()));
     }
     
     @GetMapping("/user/{userId}")
-    public ResponseEntity<ApiResponse<List<PaymentDTO>>> getPaymentsByUserId(@PathVariable Long userId) {
-        List<PaymentDTO> payments = paymentService.getPaymentsByUserId(userId);
-        return ResponseEntity.ok(ApiResponse.success("User payments retrieved successfully", payments));
+    public ResponseEntity<ApiResponse<List<PaymentDTO>>> getPaymentsByUserId(
+            @PathVariable Long userId,
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<PaymentDTO> payments = paymentService.getPaymentsByUserId(userId, after, limit);
+        return withNextCursor(payments.getNextCursor())
+                .body(ApiResponse.success("User payments retrieved successfully", payments.getItems()));
     }
     
     @GetMapping("/booking/{bookingId}")
@@ -49,5 +65,13 @@ public class PaymentController {
         PaymentDTO payment = paymentService.getPaymentByBookingId(bookingId);
         return ResponseEntity.ok(ApiResponse.success("Booking payment retrieved successfully", payment));
     }
+    
+    private ResponseEntity.BodyBuilder withNextCursor(Long nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+        }
+        return response;
+    }
 }
 
@@ -0,0 +1,14 @@
+package com.travel.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingStatusBatchUpdateRequest {
+    private List<BookingStatusUpdateRequest> updates;
+}
@@ -8,6 +8,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class BookingStatusUpdateRequest {
+    private Long bookingId;
     private String status;
     private Long paymentId;
 }
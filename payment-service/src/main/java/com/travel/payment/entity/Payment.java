@@ -9,7 +9,8 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "payments")
+@Table(name = "payments",
+        indexes = @Index(name = "idx_payments_user_id_id", columnList = "user_id, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,19 @@
+package com.travel.payment.repository;
+
+import com.travel.payment.entity.BookingStatusOutbox;
+import com.travel.payment.entity.BookingStatusOutbox.OutboxStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface BookingStatusOutboxRepository extends JpaRepository<BookingStatusOutbox, Long> {
+    List<BookingStatusOutbox> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            OutboxStatus status, LocalDateTime now, Pageable pageable);
+    long countByStatus(OutboxStatus status);
+    Optional<BookingStatusOutbox> findFirstByStatusOrderByIdAsc(OutboxStatus status);
+}
@@ -1,6 +1,7 @@
 package com.travel.payment.repository;
 
 import com.travel.payment.entity.Payment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,7 +10,8 @@ import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
-    List<Payment> findByUserId(Long userId);
     Optional<Payment> findByBookingId(Long bookingId);
+    List<Payment> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+    List<Payment> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long id, Pageable pageable);
 }
 
@@ -0,0 +1,163 @@
+package com.travel.payment.service;
+
+import com.travel.payment.dto.ApiResponse;
+import com.travel.payment.dto.BookingStatusBatchUpdateRequest;
+import com.travel.payment.dto.BookingStatusUpdateRequest;
+import com.travel.payment.entity.BookingStatusOutbox;
+import com.travel.payment.entity.BookingStatusOutbox.OutboxStatus;
+import com.travel.payment.repository.BookingStatusOutboxRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes payment outcomes queued by {@link PaymentService} to booking-service in
+ * batches, retrying with exponential backoff, and publishes outbox lag metrics.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingStatusRelay {
+    
+    private static final ParameterizedTypeReference<ApiResponse<Map<String, List<Long>>>> BATCH_RESPONSE_TYPE =
+            new ParameterizedTypeReference<>() {};
+    
+    private final BookingStatusOutboxRepository outboxRepository;
+    private final WebClient bookingWebClient;
+    private final MeterRegistry meterRegistry;
+    
+    @Value("${booking-status.outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${booking-status.outbox.max-attempts:20}")
+    private int maxAttempts;
+    
+    @Value("${booking-status.outbox.initial-backoff:1s}")
+    private Duration initialBackoff;
+    
+    @Value("${booking-status.outbox.max-backoff:5m}")
+    private Duration maxBackoff;
+    
+    @Value("${booking-status.outbox.send-timeout:10s}")
+    private Duration sendTimeout;
+    
+    private final AtomicLong pendingCount = new AtomicLong();
+    private final AtomicLong oldestPendingAgeSeconds = new AtomicLong();
+    private Timer deliveryLag;
+    
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("payment.booking_status_outbox.pending", pendingCount, AtomicLong::get)
+                .description("Booking status updates waiting to be delivered")
+                .register(meterRegistry);
+        Gauge.builder("payment.booking_status_outbox.lag", oldestPendingAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest undelivered booking status update")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        deliveryLag = Timer.builder("payment.booking_status_outbox.delivery.lag")
+                .description("Time from payment commit to booking status delivery")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+    
+    @Scheduled(fixedDelayString = "${booking-status.outbox.poll-interval-ms:1000}")
+    public void relayPending() {
+        List<BookingStatusOutbox> batch = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                OutboxStatus.PENDING, LocalDateTime.now(), PageRequest.of(0, batchSize));
+        
+        if (!batch.isEmpty()) {
+            try {
+                Set<Long> rejected = sendBatch(batch);
+                for (BookingStatusOutbox entry : batch) {
+                    if (rejected.contains(entry.getBookingId())) {
+                        markFailedAttempt(entry, "Rejected by booking-service");
+                    } else {
+                        markDelivered(entry);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("Failed to relay {} booking status updates", batch.size(), e);
+                batch.forEach(entry -> markFailedAttempt(entry, e.getMessage()));
+            }
+            outboxRepository.saveAll(batch);
+        }
+        
+        refreshLag();
+    }
+    
+    private Set<Long> sendBatch(List<BookingStatusOutbox> batch) {
+        List<BookingStatusUpdateRequest> updates = batch.stream()
+                .map(entry -> new BookingStatusUpdateRequest(
+                        entry.getBookingId(), entry.getBookingStatus(), entry.getPaymentId()))
+                .collect(Collectors.toList());
+        
+        ApiResponse<Map<String, List<Long>>> response = bookingWebClient.put()
+                .uri("/api/bookings/status/batch")
+                .bodyValue(new BookingStatusBatchUpdateRequest(updates))
+                .retrieve()
+                .bodyToMono(BATCH_RESPONSE_TYPE)
+                .timeout(sendTimeout)
+                .block();
+        
+        if (response == null || response.getData() == null) {
+            return Set.of();
+        }
+        return new HashSet<>(response.getData().getOrDefault("failed", List.of()));
+    }
+    
+    private void markDelivered(BookingStatusOutbox entry) {
+        LocalDateTime now = LocalDateTime.now();
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setStatus(OutboxStatus.DELIVERED);
+        entry.setDeliveredAt(now);
+        entry.setLastError(null);
+        deliveryLag.record(Duration.between(entry.getCreatedAt(), now));
+        meterRegistry.counter("payment.booking_status_outbox.attempts", "outcome", "delivered").increment();
+        log.info("Booking {} status updated to {}", entry.getBookingId(), entry.getBookingStatus());
+    }
+    
+    private void markFailedAttempt(BookingStatusOutbox entry, String error) {
+        int attempts = entry.getAttempts() + 1;
+        entry.setAttempts(attempts);
+        entry.setLastError(error != null && error.length() > 1000 ? error.substring(0, 1000) : error);
+        
+        if (attempts >= maxAttempts) {
+            entry.setStatus(OutboxStatus.FAILED);
+            meterRegistry.counter("payment.booking_status_outbox.attempts", "outcome", "failed").increment();
+            log.error("Giving up on booking {} status update to {} after {} attempts",
+                    entry.getBookingId(), entry.getBookingStatus(), attempts);
+            return;
+        }
+        
+        long backoffMillis = Math.min(
+                initialBackoff.toMillis() << Math.min(attempts - 1, 20),
+                maxBackoff.toMillis());
+        entry.setNextAttemptAt(LocalDateTime.now().plus(Duration.ofMillis(backoffMillis)));
+        meterRegistry.counter("payment.booking_status_outbox.attempts", "outcome", "retry").increment();
+    }
+    
+    private void refreshLag() {
+        pendingCount.set(outboxRepository.countByStatus(OutboxStatus.PENDING));
+        oldestPendingAgeSeconds.set(outboxRepository.findFirstByStatusOrderByIdAsc(OutboxStatus.PENDING)
+                .map(entry -> Duration.between(entry.getCreatedAt(), LocalDateTime.now()).toSeconds())
+                .orElse(0L));
+    }
+}
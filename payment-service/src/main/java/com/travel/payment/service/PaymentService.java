@@ -1,20 +1,21 @@
 package com.travel.payment.service;
 
-import com.travel.payment.dto.BookingStatusUpdateRequest;
+import com.travel.payment.dto.CursorPage;
 import com.travel.payment.dto.PaymentDTO;
 import com.travel.payment.dto.PaymentRequest;
-import com.travel.payment.dto.ApiResponse;
+import com.travel.payment.entity.BookingStatusOutbox;
 import com.travel.payment.entity.Payment;
 import com.travel.payment.entity.Payment.PaymentStatus;
 import com.travel.payment.exception.PaymentProcessingException;
 import com.travel.payment.exception.ResourceNotFoundException;
+import com.travel.payment.repository.BookingStatusOutboxRepository;
 import com.travel.payment.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
-import reactor.core.publisher.Mono;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,10 +27,14 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PaymentService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    
     private final PaymentRepository paymentRepository;
-    private final WebClient bookingWebClient;
+    private final BookingStatusOutboxRepository bookingStatusOutboxRepository;
+    private final LatencyMetrics latencyMetrics;
     
-    @Transactional
+    @Transactional(noRollbackFor = PaymentProcessingException.class)
     public PaymentDTO processPayment(PaymentRequest request) {
         Payment payment = new Payment();
         payment.setBookingId(request.getBookingId());
@@ -44,28 +49,32 @@ public class PaymentService {
             log.info("Processing payment for booking: {}", request.getBookingId());
             
             // Simulate payment gateway call
-            boolean paymentSuccess = simulatePaymentGateway(request);
+            boolean paymentSuccess = latencyMetrics.recordStep("gateway", () -> simulatePaymentGateway(request));
             
             if (paymentSuccess) {
                 payment.setStatus(PaymentStatus.SUCCESS);
                 payment.setPaymentDate(LocalDateTime.now());
                 log.info("Payment successful: {}", payment.getTransactionId());
                 
-                Payment savedPayment = paymentRepository.save(payment);
+                Payment savedPayment = latencyMetrics.recordStep("persist", () -> paymentRepository.save(payment));
                 
-                // Update booking status via WebClient
-                updateBookingStatus(request.getBookingId(), "CONFIRMED", savedPayment.getId());
+                // Queue booking status update for BookingStatusRelay
+                latencyMetrics.recordStep("booking-update",
+                        () -> updateBookingStatus(request.getBookingId(), "CONFIRMED", savedPayment.getId()));
                 
                 return mapToDTO(savedPayment);
             } else {
                 payment.setStatus(PaymentStatus.FAILED);
-                paymentRepository.save(payment);
+                latencyMetrics.recordStep("persist", () -> paymentRepository.save(payment));
                 
                 // Update booking status to FAILED
-                updateBookingStatus(request.getBookingId(), "FAILED", payment.getId());
+                latencyMetrics.recordStep("booking-update",
+                        () -> updateBookingStatus(request.getBookingId(), "FAILED", payment.getId()));
                 
                 throw new PaymentProcessingException("Payment processing failed");
             }
+        } catch (PaymentProcessingException e) {
+            throw e;
         } catch (Exception e) {
             payment.setStatus(PaymentStatus.FAILED);
             paymentRepository.save(payment);
@@ -84,21 +93,14 @@ public class PaymentService {
     }
     
     private void updateBookingStatus(Long bookingId, String status, Long paymentId) {
-        try {
-            BookingStatusUpdateRequest updateRequest = new BookingStatusUpdateRequest(status, paymentId);
-            
-            bookingWebClient.put()
-                    .uri("/api/bookings/{id}/status", bookingId)
-                    .bodyValue(updateRequest)
-                    .retrieve()
-                    .bodyToMono(ApiResponse.class)
-                    .block();
-            
-            log.info("Booking {} status updated to {}", bookingId, status);
-        } catch (Exception e) {
-            log.error("Failed to update booking status", e);
-            // Don't throw exception here to avoid payment rollback
-        }
+        // Persisted with the payment and delivered to booking-service by BookingStatusRelay
+        BookingStatusOutbox entry = new BookingStatusOutbox();
+        entry.setBookingId(bookingId);
+        entry.setPaymentId(paymentId);
+        entry.setBookingStatus(status);
+        bookingStatusOutboxRepository.save(entry);
+        
+        log.info("Booking {} status update to {} queued", bookingId, status);
     }
     
     public PaymentDTO getPaymentById(Long id) {
@@ -107,16 +109,12 @@ public class PaymentService {
         return mapToDTO(payment);
     }
     
-    public List<PaymentDTO> getAllPayments() {
-        return paymentRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<PaymentDTO> getAllPayments(Long after, Integer limit) {
+        return toPage(paymentRepository.findByIdGreaterThanOrderByIdAsc(cursor(after), keysetPage(limit)), limit);
     }
     
-    public List<PaymentDTO> getPaymentsByUserId(Long userId) {
-        return paymentRepository.findByUserId(userId).stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<PaymentDTO> getPaymentsByUserId(Long userId, Long after, Integer limit) {
+        return toPage(paymentRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, cursor(after), keysetPage(limit)), limit);
     }
     
     public PaymentDTO getPaymentByBookingId(Long bookingId) {
@@ -125,6 +123,30 @@ public class PaymentService {
         return mapToDTO(payment);
     }
     
+    private long cursor(Long after) {
+        return after != null ? after : 0L;
+    }
+    
+    private Pageable keysetPage(Integer limit) {
+        // One extra row tells us whether another page follows
+        return PageRequest.of(0, pageSize(limit) + 1);
+    }
+    
+    private CursorPage<PaymentDTO> toPage(List<Payment> rows, Integer limit) {
+        int pageSize = pageSize(limit);
+        boolean hasMore = rows.size() > pageSize;
+        List<Payment> page = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? page.get(page.size() - 1).getId() : null;
+        return new CursorPage<>(page.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
     private PaymentDTO mapToDTO(Payment payment) {
         return new PaymentDTO(
                 payment.getId(),
@@ -0,0 +1,31 @@
+package com.travel.user.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+@Configuration
+public class RestClientConfig {
+    
+    @Value("${services.booking.url}")
+    private String bookingServiceUrl;
+    
+    @Value("${services.booking.timeout:2s}")
+    private Duration bookingServiceTimeout;
+    
+    @Bean
+    public RestClient bookingRestClient(RestClient.Builder restClientBuilder) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(bookingServiceTimeout);
+        requestFactory.setReadTimeout(bookingServiceTimeout);
+        // Boot's builder is observed, so calls carry the current trace context
+        return restClientBuilder
+                .baseUrl(bookingServiceUrl)
+                .requestFactory(requestFactory)
+                .build();
+    }
+}
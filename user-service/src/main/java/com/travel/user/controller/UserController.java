@@ -1,6 +1,7 @@
 package com.travel.user.controller;
 
 import com.travel.user.dto.ApiResponse;
+import com.travel.user.dto.CursorPage;
 import com.travel.user.dto.UserDTO;
 import com.travel.user.service.UserService;
 import jakarta.validation.Valid;
@@ -17,6 +18,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserController {
     
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    
     private final UserService userService;
     
     @PostMapping
@@ -33,9 +36,12 @@ public class UserController {
     }
     
     @GetMapping
-    public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers() {
-        List<UserDTO> users = userService.getAllUsers();
-        return ResponseEntity.ok(ApiResponse.success("Users retrieved successfully", users));
+    public ResponseEntity<ApiResponse<List<UserDTO>>> getAllUsers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer limit) {
+        CursorPage<UserDTO> users = userService.getAllUsers(after, limit);
+        return withNextCursor(users.getNextCursor())
+                .body(ApiResponse.success("Users retrieved successfully", users.getItems()));
     }
     
     @PutMapping("/{id}")
@@ -59,5 +65,13 @@ public class UserController {
                 ApiResponse.success("User validation completed", 
                         Map.of("valid", isValid, "userId", id != null)));
     }
+    
+    private ResponseEntity.BodyBuilder withNextCursor(Long nextCursor) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (nextCursor != null) {
+            response.header(NEXT_CURSOR_HEADER, nextCursor.toString());
+        }
+        return response;
+    }
 }
 
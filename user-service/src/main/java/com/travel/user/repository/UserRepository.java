@@ -1,14 +1,18 @@
 package com.travel.user.repository;
 
 import com.travel.user.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
 }
 
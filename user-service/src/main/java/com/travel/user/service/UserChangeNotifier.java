@@ -0,0 +1,33 @@
+package com.travel.user.service;
+
+import com.travel.user.event.UserChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Tells booking-service to drop its cached copy of a user once a change has committed.
+ * A failed notification is only logged; the cache TTL bounds how long the stale entry lives.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserChangeNotifier {
+    
+    private final RestClient bookingRestClient;
+    
+    @TransactionalEventListener
+    public void onUserChanged(UserChangedEvent event) {
+        try {
+            bookingRestClient.delete()
+                    .uri("/api/bookings/user-cache/{userId}", event.getUserId())
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RestClientException e) {
+            log.warn("Failed to evict user {} from booking-service cache: {}", event.getUserId(), e.getMessage());
+        }
+    }
+}
@@ -1,11 +1,16 @@
 package com.travel.user.service;
 
+import com.travel.user.dto.CursorPage;
 import com.travel.user.dto.UserDTO;
 import com.travel.user.entity.User;
+import com.travel.user.event.UserChangedEvent;
 import com.travel.user.exception.ResourceNotFoundException;
 import com.travel.user.exception.DuplicateResourceException;
 import com.travel.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,7 +21,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserService {
     
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+    
     private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
     
     @Transactional
     public UserDTO createUser(UserDTO userDTO) {
@@ -36,10 +45,8 @@ public class UserService {
         return mapToDTO(user);
     }
     
-    public List<UserDTO> getAllUsers() {
-        return userRepository.findAll().stream()
-                .map(this::mapToDTO)
-                .collect(Collectors.toList());
+    public CursorPage<UserDTO> getAllUsers(Long after, Integer limit) {
+        return toPage(userRepository.findByIdGreaterThanOrderByIdAsc(cursor(after), keysetPage(limit)), limit);
     }
     
     @Transactional
@@ -53,6 +60,7 @@ public class UserService {
         user.setAddress(userDTO.getAddress());
         
         User updatedUser = userRepository.save(user);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
         return mapToDTO(updatedUser);
     }
     
@@ -62,6 +70,7 @@ public class UserService {
             throw new ResourceNotFoundException("User not found with id: " + id);
         }
         userRepository.deleteById(id);
+        eventPublisher.publishEvent(new UserChangedEvent(id));
     }
     
     public boolean validateUser(Long id) {
@@ -70,6 +79,30 @@ public class UserService {
                 .orElse(false);
     }
     
+    private long cursor(Long after) {
+        return after != null ? after : 0L;
+    }
+    
+    private Pageable keysetPage(Integer limit) {
+        // One extra row tells us whether another page follows
+        return PageRequest.of(0, pageSize(limit) + 1);
+    }
+    
+    private CursorPage<UserDTO> toPage(List<User> rows, Integer limit) {
+        int pageSize = pageSize(limit);
+        boolean hasMore = rows.size() > pageSize;
+        List<User> page = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? page.get(page.size() - 1).getId() : null;
+        return new CursorPage<>(page.stream().map(this::mapToDTO).collect(Collectors.toList()), nextCursor);
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+    }
+    
     private UserDTO mapToDTO(User user) {
         return new UserDTO(
                 user.getId(),